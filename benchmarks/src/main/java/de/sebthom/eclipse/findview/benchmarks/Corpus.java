@@ -0,0 +1,74 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import java.util.Random;
+
+import org.eclipse.jface.text.Document;
+
+/**
+ * Generates synthetic log-like text of a given size. The text is derived from a fixed seed, thus every benchmark run
+ * searches the same content.
+ *
+ * @author Sebastian Thomschke
+ */
+final class Corpus {
+
+   /**
+    * Term searched by the benchmarks, contained in about every other line, in mixed case and partly as part of a longer word.
+    */
+   static final String TERM = "user";
+
+   private static final String[] LEVELS = {"DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR"};
+   private static final String[] WORDS = {"request", "session", "timeout", "connection", "cache", "handler", "queue",
+      "service", "payload", "retry", "socket", "index", "worker", "thread", "lock", "commit"};
+   private static final String[] TERM_VARIANTS = {" user", " User", " USER", " username", " superuser", " user42"};
+
+   private static final long SEED = 42;
+
+   /**
+    * @param size the number of characters, e.g. <code>1KB</code>, <code>100MB</code> or <code>1234</code>
+    */
+   static Document createDocument(final String size) {
+      return new Document(generate(parseSize(size)));
+   }
+
+   static String generate(final int length) {
+      final var random = new Random(SEED);
+      final var sb = new StringBuilder(length + 256);
+      long timestamp = 1_700_000_000_000L;
+      while (sb.length() < length) {
+         timestamp += random.nextInt(1_000);
+         sb.append(timestamp).append(' ').append(LEVELS[random.nextInt(LEVELS.length)]).append(" [worker-") //
+            .append(random.nextInt(16)).append(']');
+         final int wordCount = 4 + random.nextInt(12);
+         for (int i = 0; i < wordCount; i++) {
+            if (i == 2 && random.nextBoolean()) {
+               sb.append(TERM_VARIANTS[random.nextInt(TERM_VARIANTS.length)]).append(random.nextBoolean() ? " #" : "") //
+                  .append(random.nextInt(10_000));
+            } else {
+               sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+         }
+         sb.append('\n');
+      }
+      sb.setLength(length);
+      return sb.toString();
+   }
+
+   static int parseSize(final String size) {
+      final var value = size.strip().toUpperCase();
+      if (value.endsWith("MB"))
+         return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024 * 1024;
+      if (value.endsWith("KB"))
+         return Integer.parseInt(value.substring(0, value.length() - 2)) * 1024;
+      return Integer.parseInt(value);
+   }
+
+   private Corpus() {
+   }
+}
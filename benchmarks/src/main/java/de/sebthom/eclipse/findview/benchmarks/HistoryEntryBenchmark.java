@@ -0,0 +1,82 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.sebthom.eclipse.findview.history.HistoryEntry;
+
+/**
+ * Measures persisting and restoring a full find history, which happens whenever an entry is added to the history.
+ *
+ * @author Sebastian Thomschke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryEntryBenchmark {
+
+   /**
+    * maximum size of the find history
+    */
+   private static final int ENTRY_COUNT = 50;
+
+   private final List<HistoryEntry> entries = new ArrayList<>();
+   private final List<String> lines = new ArrayList<>();
+
+   @Benchmark
+   public List<HistoryEntry> deserialize() {
+      final var result = new ArrayList<HistoryEntry>(lines.size());
+      for (final var line : lines) {
+         result.add(HistoryEntry.deserialize(line));
+      }
+      return result;
+   }
+
+   @Benchmark
+   public String serialize() {
+      final var sb = new StringBuilder();
+      for (final var entry : entries) {
+         sb.append(entry.serialize()).append('\n');
+      }
+      return sb.toString();
+   }
+
+   @Setup
+   public void setUp() {
+      final var random = new Random(42);
+      for (int i = 0; i < ENTRY_COUNT; i++) {
+         // mix of plain terms, regular expressions with characters that need escaping and non-ASCII text
+         final var find = switch (i % 3) {
+            case 0 -> "user" + random.nextInt(10_000);
+            case 1 -> "(?<id>\\d+)|[a-z]+ %" + i;
+            default -> "Größe äöü #" + i;
+         };
+         final var entry = new HistoryEntry(find, i % 2 == 0 ? "" : "member$1", random.nextBoolean(), random.nextBoolean(),
+            i % 3 == 1, random.nextBoolean(), i < 3);
+         entries.add(entry);
+         lines.add(entry.serialize());
+      }
+   }
+}
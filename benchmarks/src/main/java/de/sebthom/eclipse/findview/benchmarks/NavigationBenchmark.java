@@ -0,0 +1,108 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.MatchSet;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+
+/**
+ * Measures the operations performed on the matches of the active document while the user navigates and types, i.e. finding
+ * the next match from the caret and updating the matches after a single character edit.
+ *
+ * @author Sebastian Thomschke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class NavigationBenchmark {
+
+   private static final int CARET_COUNT = 1_024;
+
+   @Param({"1KB", "1MB", "100MB", "500MB"})
+   public String size = "1KB";
+
+   @Param
+   public SearchMode mode = SearchMode.LITERAL;
+
+   private Document doc = new Document();
+   private DocumentSnapshot content = DocumentSnapshot.of(doc);
+   private SearchReplaceCore core = new SearchReplaceCore(
+      new SearchQuery(mode.options, SearchBenchmark.MAX_MATCHES, SearchBenchmark.REGEX_TIMEOUT_MS));
+   private MatchSet matches = MatchSet.EMPTY;
+
+   /**
+    * random caret offsets, the same for each invocation
+    */
+   private final int[] carets = new int[CARET_COUNT];
+   private int nextCaret;
+
+   /**
+    * Finds the index of the next match after each caret as done by "Find Next".
+    */
+   @Benchmark
+   @OperationsPerInvocation(CARET_COUNT)
+   public int findNext() {
+      int sum = 0;
+      for (final int caret : carets) {
+         sum += matches.indexOfFirstStartingAtOrAfter(0, caret);
+      }
+      return sum;
+   }
+
+   /**
+    * Updates the matches after a character at a random offset was replaced, as done on each key stroke in the editor.
+    */
+   @Benchmark
+   public @Nullable MatchSet updateAfterEdit() {
+      final int offset = carets[nextCaret++ % CARET_COUNT];
+      final var update = core.computeUpdate(matches, content, offset, 1, 1);
+      return update == null ? null : update.applyTo(matches);
+   }
+
+   @Setup
+   public void setUp() {
+      doc = Corpus.createDocument(size);
+      content = DocumentSnapshot.of(doc);
+      core = new SearchReplaceCore(new SearchQuery(mode.options, SearchBenchmark.MAX_MATCHES, SearchBenchmark.REGEX_TIMEOUT_MS));
+      final var found = core.findAll(content, () -> false);
+      matches = found == null ? MatchSet.EMPTY : found;
+
+      final var random = new Random(42);
+      for (int i = 0; i < CARET_COUNT; i++) {
+         carets[i] = random.nextInt(doc.getLength() - 1);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      content.close();
+   }
+}
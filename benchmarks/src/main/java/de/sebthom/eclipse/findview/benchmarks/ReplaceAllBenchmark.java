@@ -0,0 +1,85 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.ReplacementTemplate;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore.Replacements;
+
+/**
+ * Measures "Replace All" as performed by the Find/Replace view, i.e. computing the replacement texts of all matches and then
+ * applying them in document order within a strictly sequential rewrite session.
+ * <p>
+ * The document is recreated before each invocation, thus the sizes are limited to those that can be recreated in a
+ * reasonable time.
+ *
+ * @author Sebastian Thomschke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ReplaceAllBenchmark {
+
+   @Param({"1KB", "1MB", "100MB"})
+   public String size = "1KB";
+
+   @Param
+   public SearchMode mode = SearchMode.LITERAL;
+
+   private String text = "";
+   private Document doc = new Document();
+   private SearchReplaceCore core = new SearchReplaceCore(
+      new SearchQuery(mode.options, SearchBenchmark.MAX_MATCHES, SearchBenchmark.REGEX_TIMEOUT_MS));
+   private ReplacementTemplate template = core.compileReplacement(mode.replacement);
+
+   @Benchmark
+   public Document replaceAll() throws BadLocationException {
+      final @Nullable Replacements replacements;
+      try (var content = DocumentSnapshot.of(doc)) {
+         replacements = core.computeReplacements(content, template, () -> false, offset -> {});
+      }
+      if (replacements != null) {
+         replacements.applyTo(doc);
+      }
+      return doc;
+   }
+
+   @Setup
+   public void setUp() {
+      text = Corpus.generate(Corpus.parseSize(size));
+      core = new SearchReplaceCore(new SearchQuery(mode.options, SearchBenchmark.MAX_MATCHES, SearchBenchmark.REGEX_TIMEOUT_MS));
+      template = core.compileReplacement(mode.replacement);
+   }
+
+   @Setup(Level.Invocation)
+   public void setUpInvocation() {
+      doc = new Document(text);
+   }
+}
@@ -0,0 +1,86 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.MatchSet;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+
+/**
+ * Measures a full search of the active document as performed by the search job of the Find/Replace view, i.e. reading the
+ * document via a {@link DocumentSnapshot} and storing at most {@link #MAX_MATCHES} matches while counting the remaining ones.
+ *
+ * @author Sebastian Thomschke
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class SearchBenchmark {
+
+   /**
+    * default of the "maximum number of matches" preference
+    */
+   static final int MAX_MATCHES = 10_000;
+
+   /**
+    * default of the "regular expression timeout" preference
+    */
+   static final long REGEX_TIMEOUT_MS = 1_000;
+
+   @Param({"1KB", "1MB", "100MB", "500MB"})
+   public String size = "1KB";
+
+   @Param
+   public SearchMode mode = SearchMode.LITERAL;
+
+   private Document doc = new Document();
+   private SearchReplaceCore core = new SearchReplaceCore(new SearchQuery(mode.options, MAX_MATCHES, REGEX_TIMEOUT_MS));
+
+   @Benchmark
+   public @Nullable MatchSet search() {
+      try (var content = DocumentSnapshot.of(doc)) {
+         return core.findAll(content, () -> false);
+      }
+   }
+
+   /**
+    * Searches in parallel chunks on the common pool if the document is large enough, otherwise sequentially.
+    */
+   @Benchmark
+   public @Nullable MatchSet searchChunked() {
+      try (var content = DocumentSnapshot.of(doc)) {
+         return core.findAll(content, ForkJoinPool.commonPool(), () -> false, matches -> {});
+      }
+   }
+
+   @Setup
+   public void setUp() {
+      doc = Corpus.createDocument(size);
+      core = new SearchReplaceCore(new SearchQuery(mode.options, MAX_MATCHES, REGEX_TIMEOUT_MS));
+   }
+}
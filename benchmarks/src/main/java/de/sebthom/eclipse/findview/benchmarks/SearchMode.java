@@ -0,0 +1,32 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.benchmarks;
+
+import de.sebthom.eclipse.findview.search.MatcherEngines;
+import de.sebthom.eclipse.findview.search.SearchOptions;
+
+/**
+ * The search modes of the Find/Replace view benchmarked against the {@link Corpus}.
+ *
+ * @author Sebastian Thomschke
+ */
+enum SearchMode {
+
+   LITERAL(new SearchOptions(Corpus.TERM, true, false, false, MatcherEngines.JDK.getId()), "member"),
+   CASE_INSENSITIVE(new SearchOptions(Corpus.TERM, false, false, false, MatcherEngines.JDK.getId()), "member"),
+   WHOLE_WORD(new SearchOptions(Corpus.TERM, true, true, false, MatcherEngines.JDK.getId()), "member"),
+   REGEX(new SearchOptions(Corpus.TERM + "(\\d+)", true, false, true, MatcherEngines.JDK.getId()), "member$1"),
+   LINEAR_REGEX(new SearchOptions(Corpus.TERM + "(\\d+)", true, false, true, MatcherEngines.LINEAR.getId()), "member$1");
+
+   final SearchOptions options;
+   final String replacement;
+
+   SearchMode(final SearchOptions options, final String replacement) {
+      this.options = options;
+      this.replacement = replacement;
+   }
+}
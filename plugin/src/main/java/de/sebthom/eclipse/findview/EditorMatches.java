@@ -0,0 +1,22 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import de.sebthom.eclipse.findview.search.MatchSet;
+
+/**
+ * The matches found in the document of an open editor.
+ *
+ * @param modificationStamp the modification stamp of the document the matches were computed for
+ *
+ * @author Sebastian Thomschke
+ */
+public record EditorMatches(ITextEditor editor, IDocument document, MatchSet matches, long modificationStamp) {
+}
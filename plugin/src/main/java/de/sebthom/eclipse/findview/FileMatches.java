@@ -0,0 +1,19 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import org.eclipse.core.resources.IFile;
+
+import de.sebthom.eclipse.findview.search.MatchSet;
+
+/**
+ * The matches found in the content of a workspace file as stored on disk.
+ *
+ * @author Sebastian Thomschke
+ */
+public record FileMatches(IFile file, MatchSet matches) {
+}
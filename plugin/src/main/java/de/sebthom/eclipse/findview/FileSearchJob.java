@@ -0,0 +1,152 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import de.sebthom.eclipse.findview.search.FileContents;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.TrigramFilter;
+import de.sebthom.eclipse.findview.search.WatchdogCharSequence;
+
+/**
+ * Searches the files of a workspace container as stored on disk in a pipeline: the job's thread enumerates the files while
+ * the threads of the {@link SearchPool} read and scan them. The result of each file having matches is handed over as soon as
+ * the file has been scanned.
+ * <p>
+ * Derived, hidden and team private resources are skipped, as are binary files and files not stored in the local file system.
+ * If the {@link WorkspaceIndex} is enabled, files that cannot contain a match according to the index are skipped as well.
+ *
+ * @author Sebastian Thomschke
+ */
+final class FileSearchJob extends Job {
+
+   /**
+    * Maximum number of files per pool thread that are enumerated but not yet scanned. Bounds the memory held by pending files
+    * and lets cancellation take effect quickly.
+    */
+   private static final int FILES_IN_FLIGHT_PER_THREAD = 4;
+
+   static Charset getCharset(final IFile file) {
+      try {
+         return Charset.forName(file.getCharset());
+      } catch (final CoreException | IllegalArgumentException ex) {
+         return Charset.defaultCharset();
+      }
+   }
+
+   /**
+    * @return false if the given resource and its members are excluded from file searches
+    */
+   static boolean isSearched(final IResourceProxy proxy) {
+      return !proxy.isDerived() && !proxy.isHidden() && !proxy.isTeamPrivateMember();
+   }
+
+   private final IContainer container;
+   private final SearchQuery query;
+   private final Consumer<FileMatches> onFileSearched;
+
+   FileSearchJob(final IContainer container, final SearchQuery query, final Consumer<FileMatches> onFileSearched) {
+      super("Searching files in '" + container.getFullPath() + "' for '" + query.options().searchString() + "'");
+      this.container = container;
+      this.query = query;
+      this.onFileSearched = onFileSearched;
+      setPriority(LONG);
+   }
+
+   @Override
+   protected IStatus run(final IProgressMonitor monitor) {
+      final SearchReplaceCore core;
+      try {
+         core = new SearchReplaceCore(query);
+      } catch (final PatternSyntaxException ex) {
+         return Status.OK_STATUS;
+      }
+
+      final var index = WorkspaceIndex.get();
+      final long[] trigrams = index == null ? TrigramFilter.NO_TRIGRAMS : TrigramFilter.requiredTrigrams(query.options());
+
+      monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+      final int maxFilesInFlight = SearchPool.INSTANCE.getParallelism() * FILES_IN_FLIGHT_PER_THREAD;
+      final var filesInFlight = new Semaphore(maxFilesInFlight);
+      try {
+         container.accept(proxy -> {
+            if (monitor.isCanceled())
+               throw new OperationCanceledException();
+            if (!isSearched(proxy))
+               return false;
+            if (proxy.getType() != IResource.FILE)
+               return true;
+            if (index != null && !index.mayContain(proxy, trigrams))
+               return false;
+
+            final var file = (IFile) proxy.requestResource();
+            filesInFlight.acquireUninterruptibly();
+            SearchPool.INSTANCE.execute(() -> {
+               try {
+                  scan(file, core, monitor);
+               } finally {
+                  filesInFlight.release();
+               }
+            });
+            return false;
+         }, IResource.NONE);
+      } catch (final OperationCanceledException ex) {
+         // stop enumerating
+      } catch (final CoreException ex) {
+         Plugin.log().error(ex);
+      } finally {
+         // wait for the files in flight
+         filesInFlight.acquireUninterruptibly(maxFilesInFlight);
+         monitor.done();
+      }
+
+      return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+   }
+
+   /**
+    * Stores at most {@link SearchQuery#maxMatches()} matches of the given file and counts the remaining ones.
+    */
+   private void scan(final IFile file, final SearchReplaceCore core, final IProgressMonitor monitor) {
+      final var location = file.getLocation();
+      if (monitor.isCanceled() || location == null)
+         return;
+
+      try {
+         final var content = FileContents.read(location.toPath(), getCharset(file));
+         if (content == null)
+            return;
+
+         final var matches = core.findAll(content, monitor::isCanceled);
+         if (matches != null && matches.getTotalCount() > 0 && !monitor.isCanceled()) {
+            onFileSearched.accept(new FileMatches(file, matches));
+         }
+      } catch (final IOException ex) {
+         // the file was deleted or is not readable
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         // the regular expression made no progress, the file is reported as having no matches
+      } catch (final RuntimeException ex) {
+         Plugin.log().error(ex);
+      }
+   }
+}
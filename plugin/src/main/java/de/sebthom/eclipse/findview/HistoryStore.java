@@ -0,0 +1,179 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.sebthom.eclipse.findview.history.HistoryEntry;
+import de.sebthom.eclipse.findview.history.HistoryLog;
+import de.sebthom.eclipse.findview.metrics.Metrics;
+import de.sebthom.eclipse.findview.metrics.Phase;
+import de.sebthom.eclipse.findview.prefs.PluginPreferences;
+import net.sf.jstuff.core.Strings;
+
+/**
+ * Persists the find history in a {@link HistoryLog} in the plugin's state location.
+ * <p>
+ * Changes are queued by the caller and written to the log in the background, so that changing the history costs no I/O on the
+ * UI thread. Changes made in quick succession are written at once. Pending changes are written when the plugin stops.
+ * <p>
+ * On first use, a history stored by earlier versions in the {@link PluginPreferences#PREF_HISTORY preferences} is migrated to
+ * the log.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class HistoryStore {
+
+   private static final String LOG_FILE_NAME = "history.log";
+
+   /**
+    * delay before queued changes are written, so that bursts of changes are written at once
+    */
+   private static final long FLUSH_DELAY_MS = 500;
+
+   private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+   private static @Nullable HistoryStore instance;
+
+   /**
+    * @return the store, the history is loaded on first access
+    */
+   public static synchronized HistoryStore get() {
+      var store = instance;
+      if (store == null) {
+         store = instance = new HistoryStore(Plugin.get().getStateLocation().append(LOG_FILE_NAME).toPath());
+         store.load();
+      }
+      return store;
+   }
+
+   /**
+    * Writes the pending changes.
+    */
+   static synchronized void shutdown() {
+      final var store = instance;
+      if (store != null) {
+         instance = null;
+         store.stop();
+      }
+   }
+
+   /**
+    * guarded by itself
+    */
+   private final HistoryLog log;
+   private final Queue<String> pendingRecords = new ConcurrentLinkedQueue<>();
+   private final Job flushJob = Job.create("Saving find history", this::flush);
+
+   private HistoryStore(final Path logFile) {
+      log = new HistoryLog(logFile);
+      flushJob.setSystem(true);
+      flushJob.setPriority(Job.SHORT);
+   }
+
+   /**
+    * Queues the given changes, see {@link HistoryLog} for the records describing them.
+    */
+   public void append(final String... records) {
+      for (final var record : records) {
+         pendingRecords.add(record);
+      }
+      flushJob.schedule(FLUSH_DELAY_MS);
+   }
+
+   private void flush(final @Nullable IProgressMonitor monitor) {
+      synchronized (log) {
+         final var records = new ArrayList<String>();
+         for (var record = pendingRecords.poll(); record != null; record = pendingRecords.poll()) {
+            records.add(record);
+         }
+         if (records.isEmpty())
+            return;
+
+         final var timer = Metrics.start(Phase.PERSIST_HISTORY);
+         try {
+            timer.stop(log.append(records), records.size());
+         } catch (final IOException ex) {
+            timer.cancel(0, records.size());
+            Plugin.log().error(ex);
+         }
+      }
+   }
+
+   /**
+    * @return the entries including the pending changes, ordered from most to least recently used
+    */
+   public List<HistoryEntry> getEntries() {
+      synchronized (log) {
+         final var entries = log.getEntries();
+         for (final var record : pendingRecords) {
+            HistoryLog.apply(entries, record);
+         }
+         return entries;
+      }
+   }
+
+   private void load() {
+      synchronized (log) {
+         try {
+            if (log.exists()) {
+               log.load();
+            } else {
+               migrate();
+            }
+         } catch (final IOException ex) {
+            Plugin.log().error(ex);
+         }
+      }
+   }
+
+   /**
+    * Moves the history stored by earlier versions in the preferences to the log.
+    */
+   private void migrate() throws IOException {
+      final var stored = PluginPreferences.getHistory();
+      if (Strings.isEmpty(stored))
+         return;
+
+      final var entries = new ArrayList<HistoryEntry>();
+      for (final var line : stored.split("\n")) {
+         if (Strings.isEmpty(line)) {
+            continue;
+         }
+         try {
+            entries.add(HistoryEntry.deserialize(line));
+         } catch (final Exception ex) {
+            // ignore malformed entries
+         }
+      }
+      log.reset(entries);
+
+      // the log supersedes the preference, which is written with the other preferences on shutdown
+      PluginPreferences.setHistory("");
+   }
+
+   private void stop() {
+      flushJob.cancel();
+      try {
+         flushJob.join(SHUTDOWN_TIMEOUT_MS, null);
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+      }
+      flush(null);
+   }
+}
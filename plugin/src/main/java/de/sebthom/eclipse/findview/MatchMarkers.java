@@ -0,0 +1,316 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension5;
+import org.eclipse.jface.text.IViewportListener;
+import org.eclipse.jface.text.JFaceTextUtil;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
+
+import de.sebthom.eclipse.findview.search.IncrementalSearch;
+import de.sebthom.eclipse.findview.search.MatchSet;
+
+/**
+ * Manages the annotations highlighting the matches of a search in an editor's annotation model.
+ * <p>
+ * The annotations are kept in an array parallel to the matches they represent, which allows to patch the annotation set
+ * after an incremental search or a new search instead of recreating all annotations.
+ * <p>
+ * If a text viewer is provided and there are more than {@link #EAGER_ANNOTATION_LIMIT} matches, only the matches in and
+ * around the viewer's visible range are annotated. Further annotations are created while scrolling and annotations outside
+ * of the visible range are discarded once there are more than {@link #MAX_OFFSCREEN_ANNOTATIONS} of them.
+ * <p>
+ * Must only be used from the UI thread.
+ *
+ * @author Sebastian Thomschke
+ */
+final class MatchMarkers {
+
+   /**
+    * up to this number of matches all matches are annotated at once
+    */
+   static final int EAGER_ANNOTATION_LIMIT = 2_000;
+
+   /**
+    * maximum number of annotations kept for matches outside of the visible range
+    */
+   static final int MAX_OFFSCREEN_ANNOTATIONS = 5_000;
+
+   private static final @Nullable Annotation[] NO_ANNOTATIONS = {};
+
+   /**
+    * @return the document range currently displayed by the given viewer
+    */
+   private static @Nullable IRegion getVisibleRange(final ITextViewer viewer) {
+      final var widget = viewer.getTextWidget();
+      if (widget == null || widget.isDisposed())
+         return null;
+
+      if (viewer instanceof final ITextViewerExtension5 viewerExt) {
+         final int topOffset = widget.getOffsetAtLine(widget.getTopIndex());
+         final int bottomLine = JFaceTextUtil.getPartialBottomIndex(widget);
+         final int bottomOffset = bottomLine + 1 < widget.getLineCount() //
+               ? widget.getOffsetAtLine(bottomLine + 1)
+               : widget.getCharCount();
+         return viewerExt.widgetRange2ModelRange(new Region(topOffset, bottomOffset - topOffset));
+      }
+
+      final int topOffset = viewer.getTopIndexStartOffset();
+      return new Region(topOffset, viewer.getBottomIndexEndOffset() - topOffset);
+   }
+
+   private static void replaceAnnotations(final IAnnotationModel model, final List<Annotation> toRemove,
+         final Map<Annotation, Position> toAdd) {
+      if (toRemove.isEmpty() && toAdd.isEmpty())
+         return;
+
+      if (model instanceof final IAnnotationModelExtension modelExt) {
+         modelExt.replaceAnnotations(toRemove.toArray(Annotation[]::new), toAdd);
+      } else {
+         for (final var annotation : toRemove) {
+            model.removeAnnotation(annotation);
+         }
+         toAdd.forEach(model::addAnnotation);
+      }
+   }
+
+   private final String annotationType;
+
+   private @Nullable IAnnotationModel annotationModel;
+
+   /**
+    * the matches the annotations belong to
+    */
+   private MatchSet matches = MatchSet.EMPTY;
+
+   /**
+    * the annotation at index <code>i</code> belongs to the match at index <code>i</code>, <code>null</code> if the match is
+    * not annotated
+    */
+   private @Nullable Annotation[] annotations = NO_ANNOTATIONS;
+   private int annotationCount;
+
+   /**
+    * the viewer whose visible range is annotated, <code>null</code> if all matches are annotated
+    */
+   private @Nullable ITextViewer lazyViewer;
+   private final IViewportListener viewportListener = verticalOffset -> annotateVisibleRange();
+
+   MatchMarkers(final String annotationType) {
+      this.annotationType = annotationType;
+   }
+
+   private void annotate(final int fromIndex, final int toIndex, final Map<Annotation, Position> toAdd) {
+      for (int i = fromIndex; i < toIndex; i++) {
+         if (annotations[i] == null) {
+            final var annotation = new Annotation(annotationType, false, null);
+            annotations[i] = annotation;
+            annotationCount++;
+            toAdd.put(annotation, matches.getPosition(i));
+         }
+      }
+   }
+
+   /**
+    * Annotates the matches in and around the visible range of the {@link #lazyViewer} and discards off-screen annotations
+    * exceeding {@link #MAX_OFFSCREEN_ANNOTATIONS}.
+    */
+   private void annotateVisibleRange() {
+      final var annotationModel = this.annotationModel;
+      if (annotationModel == null)
+         return;
+
+      final var toRemove = new ArrayList<Annotation>();
+      final var toAdd = new LinkedHashMap<Annotation, Position>();
+      annotateVisibleRange(toRemove, toAdd);
+      replaceAnnotations(annotationModel, toRemove, toAdd);
+   }
+
+   private void annotateVisibleRange(final List<Annotation> toRemove, final Map<Annotation, Position> toAdd) {
+      final var lazyViewer = this.lazyViewer;
+      if (lazyViewer == null)
+         return;
+
+      final var visibleRange = getVisibleRange(lazyViewer);
+      if (visibleRange == null)
+         return;
+
+      // also annotate one page above and below so that paging does not reveal unhighlighted matches
+      final int pageLength = visibleRange.getLength();
+      final int fromIndex = matches.indexOfFirstEndingAtOrAfter(visibleRange.getOffset() - pageLength);
+      final int toIndex = matches.indexOfFirstStartingAtOrAfter(fromIndex, visibleRange.getOffset() + 2 * pageLength);
+
+      if (annotationCount > MAX_OFFSCREEN_ANNOTATIONS + toIndex - fromIndex) {
+         discardAnnotations(0, fromIndex, toRemove);
+         discardAnnotations(toIndex, matches.size(), toRemove);
+      }
+      annotate(fromIndex, toIndex, toAdd);
+   }
+
+   /**
+    * Patches the annotations according to the given incremental search update.
+    *
+    * @param newMatches the matches resulting from applying the update to {@link #getMatches()}
+    */
+   void applyUpdate(final IncrementalSearch.Update update, final MatchSet newMatches) {
+      final var annotationModel = this.annotationModel;
+      if (annotationModel == null)
+         return;
+
+      // positions of the annotations after the patched range have already been moved by the annotation model
+      final var toRemove = new ArrayList<Annotation>();
+      discardAnnotations(update.fromIndex(), update.toIndex(), toRemove);
+
+      final var oldAnnotations = annotations;
+      final int replacementSize = update.replacement().size();
+      final var newAnnotations = new @Nullable Annotation[newMatches.size()];
+      System.arraycopy(oldAnnotations, 0, newAnnotations, 0, update.fromIndex());
+      System.arraycopy(oldAnnotations, update.toIndex(), newAnnotations, update.fromIndex() + replacementSize, //
+         oldAnnotations.length - update.toIndex());
+      annotations = newAnnotations;
+      matches = newMatches;
+
+      final var toAdd = new LinkedHashMap<Annotation, Position>();
+      if (lazyViewer == null) {
+         annotate(update.fromIndex(), update.fromIndex() + replacementSize, toAdd);
+      } else {
+         annotateVisibleRange(toRemove, toAdd);
+      }
+      replaceAnnotations(annotationModel, toRemove, toAdd);
+   }
+
+   private void discardAnnotations(final int fromIndex, final int toIndex, final List<Annotation> toRemove) {
+      for (int i = fromIndex; i < toIndex; i++) {
+         final var annotation = annotations[i];
+         if (annotation != null) {
+            toRemove.add(annotation);
+            annotations[i] = null;
+            annotationCount--;
+         }
+      }
+   }
+
+   /**
+    * @return the matches the annotations belong to
+    */
+   MatchSet getMatches() {
+      return matches;
+   }
+
+   boolean isActive() {
+      return annotationModel != null;
+   }
+
+   void removeMarkers() {
+      final var annotationModel = this.annotationModel;
+      if (annotationModel == null)
+         return;
+
+      setLazyViewer(null);
+      final var toRemove = new ArrayList<Annotation>(annotationCount);
+      discardAnnotations(0, annotations.length, toRemove);
+      replaceAnnotations(annotationModel, toRemove, Map.of());
+      annotations = NO_ANNOTATIONS;
+      matches = MatchSet.EMPTY;
+      this.annotationModel = null;
+   }
+
+   private void setLazyViewer(final @Nullable ITextViewer viewer) {
+      final var lazyViewer = this.lazyViewer;
+      if (lazyViewer == viewer)
+         return;
+      if (lazyViewer != null) {
+         lazyViewer.removeViewportListener(viewportListener);
+      }
+      if (viewer != null) {
+         viewer.addViewportListener(viewportListener);
+      }
+      this.lazyViewer = viewer;
+   }
+
+   /**
+    * Replaces the current annotations by annotations for the given matches.
+    * <p>
+    * If the annotation model is unchanged, annotations whose position equals one of the new matches are kept, so only the
+    * difference between the old and the new matches is applied to the annotation model in a single batch.
+    *
+    * @param viewer if not <code>null</code> and there are more than {@link #EAGER_ANNOTATION_LIMIT} matches, the matches in
+    *           the viewer's visible range are annotated first and further annotations are created while scrolling
+    */
+   void setMarkers(final IAnnotationModel annotationModel, final MatchSet matches, final @Nullable ITextViewer viewer) {
+      if (this.annotationModel != annotationModel) {
+         removeMarkers();
+      }
+
+      final var toRemove = new ArrayList<Annotation>();
+      final var newAnnotations = matches.isEmpty() ? NO_ANNOTATIONS : new @Nullable Annotation[matches.size()];
+      annotationCount = reuseAnnotations(annotationModel, matches, newAnnotations, toRemove);
+      annotations = newAnnotations;
+      this.annotationModel = annotationModel;
+      this.matches = matches;
+
+      final var toAdd = new LinkedHashMap<Annotation, Position>();
+      if (viewer != null && matches.size() > EAGER_ANNOTATION_LIMIT) {
+         setLazyViewer(viewer);
+         annotateVisibleRange(toRemove, toAdd);
+      } else {
+         setLazyViewer(null);
+         annotate(0, matches.size(), toAdd);
+      }
+      replaceAnnotations(annotationModel, toRemove, toAdd);
+   }
+
+   /**
+    * Moves the current annotations whose position equals a new match into <code>newAnnotations</code> and adds all other
+    * current annotations to <code>toRemove</code>. Both the current annotations and the new matches are sorted by offset, thus
+    * a single merge pass suffices.
+    *
+    * @return the number of reused annotations
+    */
+   private int reuseAnnotations(final IAnnotationModel annotationModel, final MatchSet newMatches,
+         final @Nullable Annotation[] newAnnotations, final List<Annotation> toRemove) {
+      final var oldAnnotations = annotations;
+      int reused = 0;
+      int newIndex = 0;
+      for (final var annotation : oldAnnotations) {
+         if (annotation == null) {
+            continue;
+         }
+
+         // the annotation model's position reflects all document changes made since the annotation was created
+         final var position = annotationModel.getPosition(annotation);
+         if (position == null || position.isDeleted()) {
+            toRemove.add(annotation);
+            continue;
+         }
+
+         newIndex = newMatches.indexOfFirstStartingAtOrAfter(newIndex, position.getOffset());
+         if (newIndex < newMatches.size() //
+               && newMatches.getOffset(newIndex) == position.getOffset() //
+               && newMatches.getLength(newIndex) == position.getLength() //
+               && newAnnotations[newIndex] == null) {
+            newAnnotations[newIndex] = annotation;
+            reused++;
+         } else {
+            toRemove.add(annotation);
+         }
+      }
+      return reused;
+   }
+}
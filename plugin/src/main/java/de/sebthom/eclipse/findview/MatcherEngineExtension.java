@@ -0,0 +1,107 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.sebthom.eclipse.findview.search.MatcherEngine;
+import de.sebthom.eclipse.findview.search.MatcherEngines;
+import de.sebthom.eclipse.findview.search.TextMatcher;
+
+/**
+ * {@link MatcherEngine} contributed via the <code>de.sebthom.eclipse.findview.matcherEngines</code> extension point.
+ * <p>
+ * The contributing bundle is only activated once the engine is used for the first time. Engines failing to load or to
+ * compile a pattern are logged once and disabled, i.e. fall back to {@link java.util.regex} from then on.
+ *
+ * @author Sebastian Thomschke
+ */
+final class MatcherEngineExtension implements MatcherEngine {
+
+   static final String EXTENSION_POINT_ID = Plugin.PLUGIN_ID + ".matcherEngines";
+
+   /**
+    * Registers the engines of all extensions with {@link MatcherEngines}.
+    */
+   static void registerAll() {
+      for (final var element : Platform.getExtensionRegistry().getConfigurationElementsFor(EXTENSION_POINT_ID)) {
+         final var id = element.getAttribute("id");
+         final var name = element.getAttribute("name");
+         if (id == null || id.isBlank() || name == null || name.isBlank()) {
+            Plugin.log().error("Ignoring matcher engine without id or name contributed by " + element.getContributor().getName());
+            continue;
+         }
+         MatcherEngines.register(new MatcherEngineExtension(element, id, name));
+      }
+   }
+
+   private final IConfigurationElement element;
+   private final String id;
+   private final String name;
+
+   private @Nullable MatcherEngine engine;
+   private boolean isBroken;
+
+   private MatcherEngineExtension(final IConfigurationElement element, final String id, final String name) {
+      this.element = element;
+      this.id = id;
+      this.name = name;
+   }
+
+   @Override
+   public @Nullable TextMatcher compile(final Pattern pattern) {
+      final var engine = getEngine();
+      if (engine == null)
+         return null;
+      try {
+         return engine.compile(pattern);
+      } catch (final RuntimeException ex) {
+         if (markBroken()) {
+            Plugin.log().error(ex);
+         }
+         return null;
+      }
+   }
+
+   private synchronized @Nullable MatcherEngine getEngine() {
+      if (engine == null && !isBroken) {
+         try {
+            engine = (MatcherEngine) element.createExecutableExtension("class");
+         } catch (final CoreException | ClassCastException ex) {
+            isBroken = true;
+            Plugin.log().error(ex);
+         }
+      }
+      return engine;
+   }
+
+   @Override
+   public String getId() {
+      return id;
+   }
+
+   @Override
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * @return false if the engine was already marked as broken
+    */
+   private synchronized boolean markBroken() {
+      if (isBroken)
+         return false;
+      isBroken = true;
+      engine = null;
+      return true;
+   }
+}
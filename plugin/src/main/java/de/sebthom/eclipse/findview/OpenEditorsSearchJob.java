@@ -0,0 +1,100 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot.StaleSnapshotException;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.WatchdogCharSequence;
+
+/**
+ * Scans the documents of multiple editors in parallel. The result of each editor is handed over as soon as its document
+ * has been scanned. Documents modified while being scanned are skipped.
+ *
+ * @author Sebastian Thomschke
+ */
+final class OpenEditorsSearchJob extends Job {
+
+   private final Map<ITextEditor, DocumentSnapshot> contents;
+   private final SearchQuery query;
+   private final Consumer<EditorMatches> onEditorSearched;
+
+   /**
+    * @param contents the editors to search and snapshots of their documents
+    */
+   OpenEditorsSearchJob(final Map<ITextEditor, DocumentSnapshot> contents, final SearchQuery query,
+         final Consumer<EditorMatches> onEditorSearched) {
+      super("Searching open editors for '" + query.options().searchString() + "'");
+      this.contents = contents;
+      this.query = query;
+      this.onEditorSearched = onEditorSearched;
+      setSystem(true);
+      setPriority(LONG);
+
+      // also invoked if the job is canceled before it started running
+      addJobChangeListener(new JobChangeAdapter() {
+         @Override
+         public void done(final IJobChangeEvent event) {
+            contents.values().forEach(DocumentSnapshot::close);
+         }
+      });
+   }
+
+   @Override
+   protected IStatus run(final IProgressMonitor monitor) {
+      final SearchReplaceCore core;
+      try {
+         core = new SearchReplaceCore(query);
+      } catch (final PatternSyntaxException ex) {
+         return Status.OK_STATUS;
+      }
+
+      final var tasks = new ArrayList<Callable<@Nullable Void>>(contents.size());
+      contents.forEach((editor, content) -> tasks.add(() -> {
+         scan(editor, content, core, monitor);
+         return null;
+      }));
+      SearchPool.INSTANCE.invokeAll(tasks);
+
+      return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+   }
+
+   /**
+    * Stores at most {@link SearchQuery#maxMatches()} matches of the given document and counts the remaining ones.
+    */
+   private void scan(final ITextEditor editor, final DocumentSnapshot content, final SearchReplaceCore core,
+         final IProgressMonitor monitor) {
+      try {
+         final var matches = core.findAll(content, monitor::isCanceled);
+         if (matches != null && !monitor.isCanceled() && !content.isStale()) {
+            onEditorSearched.accept(new EditorMatches(editor, content.getDocument(), matches, content.getModificationStamp()));
+         }
+      } catch (final StaleSnapshotException ex) {
+         // the document was modified while scanning
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         // the regular expression made no progress, the document is reported as having no matches
+      } catch (final RuntimeException ex) {
+         Plugin.log().error(ex);
+      }
+   }
+}
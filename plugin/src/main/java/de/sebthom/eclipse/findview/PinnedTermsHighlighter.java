@@ -0,0 +1,188 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ITextOperationTarget;
+import org.eclipse.jface.text.ITextViewer;
+
+import de.sebthom.eclipse.commons.ui.Editors;
+import de.sebthom.eclipse.commons.ui.UI;
+import de.sebthom.eclipse.findview.prefs.PluginPreferences;
+import de.sebthom.eclipse.findview.search.AhoCorasickMatcher;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.MatchSet;
+import de.sebthom.eclipse.findview.ui.ActiveTextEditorTracker;
+
+/**
+ * Highlights the matches of the pinned literal history entries in the active editor, each term with its own annotation type.
+ * <p>
+ * All terms are searched in one pass over the document with an {@link AhoCorasickMatcher}, thus the cost of a scan does not
+ * grow with the number of pinned terms. The document is re-scanned in the background shortly after it was modified, in the
+ * meantime the annotation model keeps the existing annotations in place.
+ * <p>
+ * Must only be used from the UI thread.
+ *
+ * @author Sebastian Thomschke
+ */
+final class PinnedTermsHighlighter {
+
+   /**
+    * number of annotation types <code>de.sebthom.eclipse.findview.pinnedMarker1..n</code> declared in the plugin.xml, the
+    * terms cycle through them
+    */
+   static final int ANNOTATION_TYPE_COUNT = 6;
+
+   private static final String ANNOTATION_TYPE_PREFIX = "de.sebthom.eclipse.findview.pinnedMarker";
+
+   /**
+    * delay after a document modification before the document is re-scanned, so that typing does not trigger a scan per key
+    * stroke
+    */
+   private static final long RESCAN_DELAY_MS = 250;
+
+   private @Nullable AhoCorasickMatcher matcher;
+
+   /**
+    * the markers of each term indexed like {@link AhoCorasickMatcher#getTerms()}
+    */
+   private final List<MatchMarkers> markers = new ArrayList<>();
+
+   /**
+    * incremented on each scan request, used to discard results of superseded scans
+    */
+   private long scanGeneration;
+   private @Nullable PinnedTermsSearchJob scanJob;
+
+   /**
+    * the document the markers belong to
+    */
+   private @Nullable IDocument scannedDocument;
+
+   private final IDocumentListener documentListener = new IDocumentListener() {
+      @Override
+      public void documentAboutToBeChanged(final DocumentEvent event) {
+      }
+
+      @Override
+      public void documentChanged(final DocumentEvent event) {
+         scan(RESCAN_DELAY_MS);
+      }
+   };
+
+   PinnedTermsHighlighter() {
+      ActiveTextEditorTracker.ACTIVE_TEXT_EDITOR.subscribe(this::onActiveEditorChanged);
+   }
+
+   void dispose() {
+      ActiveTextEditorTracker.ACTIVE_TEXT_EDITOR.unsubscribe(this::onActiveEditorChanged);
+      matcher = null;
+      scan(0);
+   }
+
+   private void onActiveEditorChanged() {
+      // the markers of the document are kept up-to-date by the document listener
+      if (Editors.getActiveDocument() != scannedDocument) {
+         scan(0);
+      }
+   }
+
+   private void publish(final long generation, final IDocument doc, final List<MatchSet> matches) {
+      if (generation != scanGeneration)
+         return; // superseded by a newer scan
+
+      scanJob = null;
+      final var editor = Editors.getActiveTextEditor();
+      final var annotationModel = editor == null || Editors.getDocument(editor) != doc ? null : Editors.getAnnotationModel(editor);
+      if (editor == null || annotationModel == null) {
+         removeMarkers();
+         return;
+      }
+
+      final var viewer = PluginPreferences.isHighlightVisibleRangeFirst() //
+            && editor.getAdapter(ITextOperationTarget.class) instanceof final ITextViewer textViewer ? textViewer : null;
+      while (markers.size() > matches.size()) {
+         markers.remove(markers.size() - 1).removeMarkers();
+      }
+      for (int i = 0; i < matches.size(); i++) {
+         if (i == markers.size()) {
+            markers.add(new MatchMarkers(ANNOTATION_TYPE_PREFIX + (i % ANNOTATION_TYPE_COUNT + 1)));
+         }
+         markers.get(i).setMarkers(annotationModel, matches.get(i), viewer);
+      }
+   }
+
+   private void removeMarkers() {
+      for (final var marker : markers) {
+         marker.removeMarkers();
+      }
+      markers.clear();
+   }
+
+   /**
+    * Re-scans the active editor's document, e.g. after a preference affecting the highlighting changed.
+    */
+   void rescan() {
+      scan(0);
+   }
+
+   /**
+    * Scans the active editor's document in the background after the given delay and replaces the markers with the result.
+    */
+   private void scan(final long delayMS) {
+      final long generation = ++scanGeneration;
+      final var prevScanJob = scanJob;
+      if (prevScanJob != null) {
+         prevScanJob.cancel();
+         scanJob = null;
+      }
+
+      final var matcher = this.matcher;
+      final var doc = matcher == null ? null : Editors.getActiveDocument();
+      if (doc != scannedDocument) {
+         // markers of another document are outdated
+         removeMarkers();
+         trackDocument(doc);
+      }
+      if (matcher == null || doc == null)
+         return;
+
+      final var job = new PinnedTermsSearchJob(DocumentSnapshot.of(doc), matcher, PluginPreferences.getMaxMatches(), //
+         matches -> UI.getDisplay().asyncExec(() -> publish(generation, doc, matches)));
+      scanJob = job;
+      job.schedule(delayMS);
+   }
+
+   /**
+    * Sets the terms to highlight and re-scans the active editor's document if they changed.
+    */
+   void setTerms(final List<AhoCorasickMatcher.Term> terms) {
+      final var matcher = this.matcher;
+      if (matcher == null ? terms.isEmpty() : matcher.getTerms().equals(terms))
+         return;
+
+      this.matcher = terms.isEmpty() ? null : new AhoCorasickMatcher(terms);
+      scan(0);
+   }
+
+   private void trackDocument(final @Nullable IDocument doc) {
+      final var scannedDocument = this.scannedDocument;
+      if (scannedDocument != null) {
+         scannedDocument.removeDocumentListener(documentListener);
+      }
+      if (doc != null) {
+         doc.addDocumentListener(documentListener);
+      }
+      this.scannedDocument = doc;
+   }
+}
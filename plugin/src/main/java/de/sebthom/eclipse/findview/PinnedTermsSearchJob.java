@@ -0,0 +1,75 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+import de.sebthom.eclipse.findview.search.AhoCorasickMatcher;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot.StaleSnapshotException;
+import de.sebthom.eclipse.findview.search.MatchSet;
+
+/**
+ * Scans a document snapshot for the matches of all pinned terms in a single pass in the background. The result is only
+ * handed over if the job ran to completion on a snapshot that is still up-to-date.
+ *
+ * @author Sebastian Thomschke
+ */
+final class PinnedTermsSearchJob extends Job {
+
+   private final DocumentSnapshot content;
+   private final AhoCorasickMatcher matcher;
+   private final int maxMatches;
+   private final Consumer<List<MatchSet>> onResult;
+
+   /**
+    * @param onResult invoked with the matches of each term indexed like {@link AhoCorasickMatcher#getTerms()}
+    */
+   PinnedTermsSearchJob(final DocumentSnapshot content, final AhoCorasickMatcher matcher, final int maxMatches,
+         final Consumer<List<MatchSet>> onResult) {
+      super("Searching for pinned terms");
+      this.content = content;
+      this.matcher = matcher;
+      this.maxMatches = maxMatches;
+      this.onResult = onResult;
+      setSystem(true);
+      setPriority(DECORATE);
+
+      // also invoked if the job is canceled before it started running
+      addJobChangeListener(new JobChangeAdapter() {
+         @Override
+         public void done(final IJobChangeEvent event) {
+            content.close();
+         }
+      });
+   }
+
+   @Override
+   protected IStatus run(final IProgressMonitor monitor) {
+      final List<MatchSet> matches;
+      try {
+         matches = matcher.findAll(content, maxMatches, monitor::isCanceled);
+      } catch (final StaleSnapshotException ex) {
+         // the document was modified while scanning, a new scan is triggered by the modification
+         return Status.CANCEL_STATUS;
+      }
+
+      if (matches == null || monitor.isCanceled() || content.isStale())
+         return Status.CANCEL_STATUS;
+
+      onResult.accept(matches);
+      return Status.OK_STATUS;
+   }
+}
@@ -78,12 +78,15 @@ public void start(final BundleContext context) throws Exception {
       super.start(context);
       instance = this;
 
+      MatcherEngineExtension.registerAll();
       ActiveTextEditorTracker.install();
    }
 
    @Override
    public void stop(final BundleContext context) throws Exception {
       ActiveTextEditorTracker.uninstall();
+      WorkspaceIndex.shutdown();
+      HistoryStore.shutdown();
 
       instance = null;
       super.stop(context);
@@ -0,0 +1,100 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+
+import de.sebthom.eclipse.findview.metrics.Metrics;
+import de.sebthom.eclipse.findview.metrics.Phase;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot.StaleSnapshotException;
+import de.sebthom.eclipse.findview.search.ReplacementTemplate;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore.Replacements;
+import de.sebthom.eclipse.findview.search.WatchdogCharSequence;
+
+/**
+ * Computes the replacements of all matches in a document snapshot in a single pass in the background, reporting progress
+ * to the job's progress monitor.
+ * <p>
+ * The document itself is not modified by the job. The computed replacements are only handed over if the job ran to
+ * completion on a snapshot that is still up-to-date, thus canceling the job leaves the document untouched.
+ *
+ * @author Sebastian Thomschke
+ */
+final class ReplaceAllJob extends Job {
+
+   private final DocumentSnapshot content;
+   private final String contentName;
+   private final SearchReplaceCore core;
+   private final ReplacementTemplate template;
+   private final Consumer<Replacements> onCompleted;
+
+   private int worked;
+
+   /**
+    * @param contentName the name of the edited editor input, only used for diagnostics
+    */
+   ReplaceAllJob(final DocumentSnapshot content, final String contentName, final SearchReplaceCore core,
+         final ReplacementTemplate template, final Consumer<Replacements> onCompleted) {
+      super("Computing replacements");
+      this.content = content;
+      this.contentName = contentName;
+      this.core = core;
+      this.template = template;
+      this.onCompleted = onCompleted;
+      setUser(true);
+      setPriority(LONG);
+
+      // also invoked if the job is canceled before it started running
+      addJobChangeListener(new JobChangeAdapter() {
+         @Override
+         public void done(final IJobChangeEvent event) {
+            content.close();
+         }
+      });
+   }
+
+   @Override
+   protected IStatus run(final IProgressMonitor monitor) {
+      final var subMonitor = SubMonitor.convert(monitor, getName(), content.length());
+      final var timer = Metrics.start(Phase.REPLACE_ALL_COMPUTE) //
+         .withContent(contentName) //
+         .withOptions(core.getQuery().options());
+      try {
+         final var replacements = core.computeReplacements(content, template, subMonitor::isCanceled, offset -> {
+            subMonitor.worked(offset - worked);
+            worked = offset;
+         });
+         if (replacements == null || content.isStale()) {
+            timer.cancel(content.length(), replacements == null ? 0 : replacements.matches().size());
+            return Status.CANCEL_STATUS;
+         }
+         timer.stop(content.length(), replacements.matches().size());
+
+         subMonitor.done();
+         onCompleted.accept(replacements);
+         return Status.OK_STATUS;
+      } catch (final StaleSnapshotException ex) {
+         // the document was modified while scanning, the replacements would not match the current content
+         timer.cancel(content.length(), 0);
+         return Status.CANCEL_STATUS;
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         // the regular expression made no progress, the search itself reports the timeout
+         timer.cancel(content.length(), 0);
+         return Status.CANCEL_STATUS;
+      }
+   }
+}
@@ -0,0 +1,131 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.sebthom.eclipse.findview.metrics.Metrics;
+import de.sebthom.eclipse.findview.metrics.Phase;
+import de.sebthom.eclipse.findview.metrics.PhaseTimer;
+import de.sebthom.eclipse.findview.search.ChunkedSearch;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot.StaleSnapshotException;
+import de.sebthom.eclipse.findview.search.MatchSet;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.WatchdogCharSequence;
+
+/**
+ * Scans a document snapshot for matches in the background. The job checks for cancellation while scanning and only
+ * hands over its result if it ran to completion on a snapshot that is still up-to-date.
+ * <p>
+ * At most {@link SearchQuery#maxMatches()} matches are stored. Once the limit is reached, the stored matches are handed
+ * over immediately as a {@link MatchSet#isTruncated() truncated} match set while the remaining matches are only counted. The
+ * refined count is handed over periodically and once counting is complete.
+ * <p>
+ * Large documents are split into chunks scanned in parallel on the {@link SearchPool}, see {@link ChunkedSearch}. The matches
+ * are then handed over at once.
+ * <p>
+ * Regular expression matching that makes no progress for longer than {@link SearchQuery#regExTimeout()} milliseconds is
+ * aborted, see {@link WatchdogCharSequence}.
+ * <p>
+ * The scanning itself is done by the {@link SearchReplaceCore}.
+ *
+ * @author Sebastian Thomschke
+ */
+final class SearchJob extends Job {
+
+   private final DocumentSnapshot content;
+   private final String contentName;
+   private final SearchQuery query;
+   private final Consumer<MatchSet> onResult;
+   private final Runnable onTimeout;
+
+   /**
+    * @param contentName the name of the searched editor input, only used for diagnostics
+    * @param onResult invoked with the matches, if the matches are truncated invoked again with each refined match count
+    * @param onTimeout invoked instead of <code>onResult</code> if the search was aborted by the regular expression watchdog
+    */
+   SearchJob(final DocumentSnapshot content, final String contentName, final SearchQuery query, final Consumer<MatchSet> onResult,
+         final Runnable onTimeout) {
+      super("Searching for '" + query.options().searchString() + "'");
+      this.content = content;
+      this.contentName = contentName;
+      this.query = query;
+      this.onResult = onResult;
+      this.onTimeout = onTimeout;
+      setSystem(true);
+      setPriority(INTERACTIVE);
+
+      // also invoked if the job is canceled before it started running
+      addJobChangeListener(new JobChangeAdapter() {
+         @Override
+         public void done(final IJobChangeEvent event) {
+            content.close();
+         }
+      });
+   }
+
+   @Override
+   protected IStatus run(final IProgressMonitor monitor) {
+      try {
+         return search(monitor);
+      } catch (final StaleSnapshotException ex) {
+         // the document was modified while scanning, a new search is triggered by the modification
+         return Status.CANCEL_STATUS;
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         if (ex.isTimeout() && !monitor.isCanceled() && !content.isStale()) {
+            onTimeout.run();
+         }
+         return Status.CANCEL_STATUS;
+      }
+   }
+
+   private IStatus search(final IProgressMonitor monitor) {
+      final var compileTimer = start(Phase.COMPILE_MATCHER);
+      final SearchReplaceCore core;
+      try {
+         core = new SearchReplaceCore(query);
+      } catch (final PatternSyntaxException ex) {
+         // most likely a regular expression that is still being typed
+         compileTimer.cancel(0, 0);
+         onResult.accept(MatchSet.EMPTY);
+         return Status.OK_STATUS;
+      }
+      compileTimer.stop(0, 0);
+
+      final var searchTimer = start(Phase.SEARCH);
+      final @Nullable MatchSet newMatches;
+      try {
+         newMatches = core.findAll(content, SearchPool.INSTANCE, monitor::isCanceled, onResult);
+      } catch (final RuntimeException ex) {
+         searchTimer.cancel(content.length(), 0);
+         throw ex;
+      }
+      if (newMatches == null || monitor.isCanceled() || content.isStale()) {
+         searchTimer.cancel(content.length(), newMatches == null ? 0 : newMatches.getTotalCount());
+         return Status.CANCEL_STATUS;
+      }
+      searchTimer.stop(content.length(), newMatches.getTotalCount());
+
+      onResult.accept(newMatches);
+      return Status.OK_STATUS;
+   }
+
+   private PhaseTimer start(final Phase phase) {
+      return Metrics.start(phase).withContent(contentName).withOptions(query.options());
+   }
+}
@@ -0,0 +1,23 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Sebastian Thomschke
+ */
+final class SearchPool {
+
+   /**
+    * Bounded pool shared by all multi-document searches, leaving one core for the UI thread.
+    */
+   static final ForkJoinPool INSTANCE = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+   private SearchPool() {
+   }
+}
@@ -10,29 +10,61 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.PatternSyntaxException;
 
-import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IRewriteTarget;
+import org.eclipse.jface.text.ITextOperationTarget;
 import org.eclipse.jface.text.ITextSelection;
-import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.ide.IDE;
+import org.eclipse.ui.texteditor.ITextEditor;
 
 import de.sebthom.eclipse.commons.text.FindReplaceTarget;
-import de.sebthom.eclipse.commons.text.Markers;
 import de.sebthom.eclipse.commons.ui.Editors;
 import de.sebthom.eclipse.commons.ui.UI;
 import de.sebthom.eclipse.commons.ui.listener.PageListener;
+import de.sebthom.eclipse.findview.localization.Messages;
+import de.sebthom.eclipse.findview.metrics.Metrics;
+import de.sebthom.eclipse.findview.metrics.Phase;
 import de.sebthom.eclipse.findview.prefs.PluginPreferences;
+import de.sebthom.eclipse.findview.search.AhoCorasickMatcher;
+import de.sebthom.eclipse.findview.search.DocumentCharSequence;
+import de.sebthom.eclipse.findview.search.DocumentSnapshot;
+import de.sebthom.eclipse.findview.search.IncrementalSearch;
+import de.sebthom.eclipse.findview.search.MatchSet;
+import de.sebthom.eclipse.findview.search.ReplacementTemplate;
+import de.sebthom.eclipse.findview.search.SearchOptions;
+import de.sebthom.eclipse.findview.search.SearchQuery;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore;
+import de.sebthom.eclipse.findview.search.SearchReplaceCore.Replacements;
+import de.sebthom.eclipse.findview.search.WatchdogCharSequence;
 import net.sf.jstuff.core.Strings;
-import net.sf.jstuff.core.collection.CollectionUtils;
 import net.sf.jstuff.core.ref.MutableObservableRef;
 
 /**
@@ -47,6 +79,14 @@ private enum Direction {
 
    public static final int NOT_FOUND = -1;
 
+   private static final long FILE_SEARCH_DELAY_MS = 300;
+
+   /**
+    * maximum number of milliseconds a regular expression may make no progress while matching on the UI thread, slower
+    * expressions are left to the background search, which uses the configured timeout
+    */
+   private static final long UI_THREAD_REGEX_TIMEOUT_MS = 50;
+
    private static final ConcurrentMap<IWorkbenchWindow, SearchReplaceEngine> INSTANCES_BY_WINDOW = new ConcurrentHashMap<>();
 
    public static SearchReplaceEngine get() {
@@ -66,11 +106,104 @@ public void pageClosed(final IWorkbenchPage page) {
       });
    }
 
-   private final Markers markers = new Markers("de.sebthom.eclipse.findview.defaultMarker");
+   /**
+    * @return the name of the editor's input for diagnostics or an empty string
+    */
+   private static String getContentName(final @Nullable ITextEditor editor) {
+      final var input = editor == null ? null : editor.getEditorInput();
+      return input == null ? "" : input.getName();
+   }
+
+   private static long getModificationStamp(final @Nullable IDocument doc) {
+      return doc instanceof final IDocumentExtension4 docExt //
+            ? docExt.getModificationStamp()
+            : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+   }
+
+   /**
+    * @return the index of the next match relative to the editor's selection or {@link #NOT_FOUND} if there is no further match
+    *         in the given direction
+    */
+   private static int indexOfNextMatch(final MatchSet matches, final ITextEditor editor, final Direction direction) {
+      final var selection = editor.getSelectionProvider().getSelection();
+      final var textSelection = selection instanceof final ITextSelection textSel && !textSel.isEmpty() ? textSel : null;
+      final int selOffset = textSelection == null ? 0 : textSelection.getOffset();
+      final int selLength = textSelection == null ? 0 : textSelection.getLength();
+
+      switch (direction) {
+         case FORWARD:
+            int index = matches.indexOfFirstStartingAtOrAfter(0, selOffset + selLength);
+            // an empty match at the caret position may already be the selected one
+            if (index < matches.size() && matches.getOffset(index) == selOffset && matches.getLength(index) == selLength) {
+               index++;
+            }
+            return index == matches.size() ? NOT_FOUND : index;
+         case BACKWARD:
+         default:
+            return matches.indexOfFirstStartingAtOrAfter(0, selOffset) - 1;
+      }
+   }
+
+   private final MatchMarkers markers = new MatchMarkers("de.sebthom.eclipse.findview.defaultMarker");
+   private final PinnedTermsHighlighter pinnedTermsHighlighter = new PinnedTermsHighlighter();
 
    public final MutableObservableRef<String> searchString = MutableObservableRef.of("");
    public final MutableObservableRef<String> replaceWithString = MutableObservableRef.of("");
-   public final MutableObservableRef<List<Position>> matches = MutableObservableRef.of(Collections.emptyList());
+   public final MutableObservableRef<MatchSet> matches = MutableObservableRef.of(MatchSet.EMPTY);
+
+   /**
+    * index of the match selected by the last navigation or {@link #NOT_FOUND}
+    */
+   public final MutableObservableRef<Integer> selectedMatchIndex = MutableObservableRef.of(NOT_FOUND);
+
+   /**
+    * the matches of each open editor if the "open editors" scope is enabled, ordered like the editor tabs
+    */
+   public final MutableObservableRef<List<EditorMatches>> openEditorsMatches = MutableObservableRef.of(List.of());
+
+   /**
+    * the files having matches if a file scope is enabled, ordered by path. Grows while the file search is running.
+    */
+   public final MutableObservableRef<List<FileMatches>> fileMatches = MutableObservableRef.of(List.of());
+
+   /**
+    * true if the search of the active editor was aborted because the regular expression made no progress
+    */
+   public final MutableObservableRef<Boolean> isRegExTimedOut = MutableObservableRef.of(false);
+
+   /**
+    * incremented on each search request, used to discard results of superseded searches
+    */
+   private final AtomicLong searchGeneration = new AtomicLong();
+   private long publishedGeneration;
+   private @Nullable SearchJob searchJob;
+   private @Nullable ReplaceAllJob replaceAllJob;
+
+   private final AtomicLong openEditorsSearchGeneration = new AtomicLong();
+   private @Nullable OpenEditorsSearchJob openEditorsSearchJob;
+   private List<ITextEditor> searchedEditors = List.of();
+
+   private final AtomicLong fileSearchGeneration = new AtomicLong();
+   private @Nullable FileSearchJob fileSearchJob;
+
+   /**
+    * the document and query the current matches belong to
+    */
+   private @Nullable IDocument searchedDocument;
+   private @Nullable SearchQuery searchedQuery;
+   private String searchedContentName = "";
+   private long searchedModificationStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+   private final IDocumentListener documentListener = new IDocumentListener() {
+      @Override
+      public void documentAboutToBeChanged(final DocumentEvent event) {
+      }
+
+      @Override
+      public void documentChanged(final DocumentEvent event) {
+         onDocumentChanged(event);
+      }
+   };
 
    public SearchReplaceEngine() {
       searchString.subscribe(this::search);
@@ -80,23 +213,195 @@ public SearchReplaceEngine() {
    private void addMarkers() {
       final var editor = Editors.getActiveTextEditor();
       if (editor == null) {
-         matches.set(Collections.emptyList());
+         matches.set(MatchSet.EMPTY);
          return;
       }
       final var annoModels = Editors.getAnnotationModel(editor);
       if (annoModels == null) {
-         matches.set(Collections.emptyList());
+         matches.set(MatchSet.EMPTY);
          return;
       }
-      markers.setMarkers(annoModels, matches.get(), new NullProgressMonitor());
+      final var viewer = PluginPreferences.isHighlightVisibleRangeFirst() //
+            && editor.getAdapter(ITextOperationTarget.class) instanceof final ITextViewer textViewer ? textViewer : null;
+      final var doc = Editors.getDocument(editor);
+      final var matches = this.matches.get();
+      final var timer = Metrics.start(Phase.SET_MARKERS).withContent(getContentName(editor));
+      markers.setMarkers(annoModels, matches, viewer);
+      timer.stop(doc == null ? 0 : doc.getLength(), matches.size());
+   }
+
+   /**
+    * @param modificationStamp the modification stamp of the document the replacements were computed for
+    */
+   private synchronized void applyReplacements(final ITextEditor editor, final IDocument doc, final Replacements replacements,
+         final long modificationStamp) {
+      replaceAllJob = null;
+
+      // the replacements are discarded if the document was modified in the meantime
+      if (replacements.matches().isEmpty() //
+            || Editors.getDocument(editor) != doc //
+            || doc instanceof final IDocumentExtension4 docExt && docExt.getModificationStamp() != modificationStamp)
+         return;
+
+      // the matches are recomputed after all replacements, thus skip incremental updates and highlighting in between
+      trackDocument(null);
+      removeMarkers();
+
+      final var rewriteTarget = editor.getAdapter(IRewriteTarget.class);
+      if (rewriteTarget != null) {
+         rewriteTarget.setRedraw(false);
+         rewriteTarget.beginCompoundChange();
+      }
+      try {
+         final var timer = Metrics.start(Phase.REPLACE_ALL_APPLY).withContent(getContentName(editor));
+         replacements.applyTo(doc);
+         timer.stop(doc.getLength(), replacements.matches().size());
+      } catch (final BadLocationException ex) {
+         Plugin.log().error(ex);
+      } finally {
+         if (rewriteTarget != null) {
+            rewriteTarget.endCompoundChange();
+            rewriteTarget.setRedraw(true);
+         }
+      }
+
+      searchActiveEditor();
+   }
+
+   /**
+    * @return the replacement for the match at the given range or <code>null</code> if the replacement string is invalid or the
+    *         range is not a match of the current search
+    */
+   private @Nullable String computeReplacement(final ITextEditor editor, final IDocument doc, final int offset, final int length) {
+      final SearchReplaceCore core;
+      final ReplacementTemplate template;
+      try {
+         core = new SearchReplaceCore(createSearchQuery(searchString.get()).withMaxRegExTimeout(UI_THREAD_REGEX_TIMEOUT_MS));
+         template = core.compileReplacement(replaceWithString.get());
+      } catch (final IllegalArgumentException ex) {
+         showInvalidReplacementError(editor, ex);
+         return null;
+      }
+
+      try {
+         return core.computeReplacement(new DocumentCharSequence(doc), template, offset, length);
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         // let the background search report the timeout
+         searchActiveEditor();
+         return null;
+      }
+   }
+
+   /**
+    * @return the query of the given search string with the options and limits currently configured in the preferences
+    */
+   private SearchQuery createSearchQuery(final String searchString) {
+      final var options = new SearchOptions(searchString, //
+         PluginPreferences.isMatchCase(), //
+         PluginPreferences.isMatchWholeWord(), //
+         PluginPreferences.isMatchRegEx(), //
+         PluginPreferences.getMatcherEngine() //
+      );
+      return new SearchQuery(options, PluginPreferences.getMaxMatches(), PluginPreferences.getRegExTimeout());
+   }
+
+   /**
+    * @return the matches of the given search result or null if the document was modified since it was searched. Stale documents
+    *         are not re-scanned here, because navigating runs on the UI thread.
+    */
+   private @Nullable MatchSet getUpToDateMatches(final EditorMatches editorMatches) {
+      final var doc = editorMatches.document();
+      if (isMatchesUpToDate(doc))
+         return matches.get();
+
+      final long modificationStamp = getModificationStamp(doc);
+      if (modificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP && modificationStamp == editorMatches.modificationStamp())
+         return editorMatches.matches();
+      return null;
    }
 
    public synchronized void gotoNextMatch() {
-      selectNextMatch(FindReplaceTarget.get(), Direction.FORWARD);
+      if (PluginPreferences.getSearchScope() != SearchScope.OPEN_EDITORS || selectNextMatchInOpenEditors(Direction.FORWARD) == NOT_FOUND) {
+         selectNextMatch(FindReplaceTarget.get(), Direction.FORWARD);
+      }
    }
 
    public synchronized void gotoPreviousMatch() {
-      selectNextMatch(FindReplaceTarget.get(), Direction.BACKWARD);
+      if (PluginPreferences.getSearchScope() != SearchScope.OPEN_EDITORS || selectNextMatchInOpenEditors(Direction.BACKWARD) == NOT_FOUND) {
+         selectNextMatch(FindReplaceTarget.get(), Direction.BACKWARD);
+      }
+   }
+
+   /**
+    * Updates the matches after an edit by only rescanning the damaged region of the document.
+    */
+   private synchronized void onDocumentChanged(final DocumentEvent event) {
+      if (searchJob != null) {
+         // the content scanned by the running search is outdated
+         searchActiveEditor();
+         return;
+      }
+
+      final var query = searchedQuery;
+      if (query == null)
+         return;
+
+      final SearchReplaceCore core;
+      try {
+         core = new SearchReplaceCore(query.withMaxRegExTimeout(UI_THREAD_REGEX_TIMEOUT_MS));
+      } catch (final PatternSyntaxException ex) {
+         return;
+      }
+
+      final var oldMatches = matches.get();
+      if (oldMatches.isTruncated() || isRegExTimedOut.get()) {
+         // matches beyond the truncated ones resp. of the aborted search are unknown
+         searchActiveEditor();
+         return;
+      }
+
+      final var insertedText = event.getText();
+      final var timer = Metrics.start(Phase.INCREMENTAL_UPDATE) //
+         .withContent(searchedContentName) //
+         .withOptions(query.options());
+      IncrementalSearch.@Nullable Update update;
+      try {
+         update = core.computeUpdate(oldMatches, new DocumentCharSequence(event.getDocument()), //
+            event.getOffset(), event.getLength(), insertedText == null ? 0 : insertedText.length());
+      } catch (final WatchdogCharSequence.AbortedException ex) {
+         // let the background search report the timeout
+         update = null;
+      }
+      if (update == null) {
+         timer.cancel(event.getDocument().getLength(), 0);
+         searchActiveEditor();
+         return;
+      }
+
+      final var newMatches = update.applyTo(oldMatches);
+      timer.stop(event.getDocument().getLength(), newMatches.size());
+      setMatches(newMatches);
+      if (markers.isActive()) {
+         if (markers.getMatches() == oldMatches) {
+            final var markersTimer = Metrics.start(Phase.UPDATE_MARKERS).withContent(searchedContentName);
+            markers.applyUpdate(update, newMatches);
+            markersTimer.stop(event.getDocument().getLength(), update.replacement().size());
+         } else {
+            addMarkers();
+         }
+      }
+   }
+
+   /**
+    * @return true if the published matches reflect the current content of the given document and the current search query
+    */
+   private boolean isMatchesUpToDate(final IDocument doc) {
+      return doc == searchedDocument //
+            && searchJob == null //
+            && !matches.get().isTruncated() //
+            && getModificationStamp(doc) != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP //
+            && getModificationStamp(doc) == searchedModificationStamp //
+            && createSearchQuery(searchString.get()).equals(searchedQuery);
    }
 
    private synchronized void onPreferencesChanged(final PropertyChangeEvent ev) {
@@ -108,20 +413,65 @@ private synchronized void onPreferencesChanged(final PropertyChangeEvent ev) {
                removeMarkers();
             }
             break;
+         case PluginPreferences.PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST:
+            if (markers.isActive()) {
+               addMarkers();
+            }
+            pinnedTermsHighlighter.rescan();
+            break;
+         case PluginPreferences.PREF_MAX_MATCHES:
+            search();
+            pinnedTermsHighlighter.rescan();
+            break;
          case PluginPreferences.PREF_MATCH_CASE:
          case PluginPreferences.PREF_MATCH_REGEX:
          case PluginPreferences.PREF_MATCH_WHOLEWORD:
+         case PluginPreferences.PREF_MATCHER_ENGINE:
+         case PluginPreferences.PREF_REGEX_TIMEOUT:
             search();
             break;
+         case PluginPreferences.PREF_SEARCH_SCOPE:
+            searchOpenEditors();
+            searchFiles();
+            break;
          default:
             // nothing to do
       }
    }
 
+   /**
+    * Opens the file of the given search result in an editor and selects its first match.
+    */
+   public synchronized void openFileMatches(final FileMatches result) {
+      final var page = UI.getActiveWorkbenchPage();
+      if (page == null)
+         return;
+
+      try {
+         final var editorPart = IDE.openEditor(page, result.file());
+         final var editor = editorPart == null ? null : editorPart.getAdapter(ITextEditor.class);
+         if (editor == null)
+            return;
+
+         // let the highlighting follow the active editor
+         searchActiveEditor();
+         final var matches = result.matches();
+         if (!matches.isEmpty()) {
+            editor.selectAndReveal(matches.getOffset(0), matches.getLength(0));
+         }
+      } catch (final PartInitException ex) {
+         Plugin.log().error(ex);
+      }
+   }
+
    public synchronized void removeMarkers() {
       markers.removeMarkers();
    }
 
+   /**
+    * Computes the replacements of all matches in the background and then applies them to the active editor's document within
+    * one document rewrite session and one undoable change.
+    */
    public synchronized void replaceAll() {
       final var editor = Editors.getActiveTextEditor();
       if (editor == null)
@@ -131,16 +481,30 @@ public synchronized void replaceAll() {
       if (doc == null)
          return;
 
-      final var replaceWith = replaceWithString.get();
-      for (final var match : CollectionUtils.reverse(matches.get())) {
-         try {
-            doc.replace(match.getOffset(), match.getLength(), replaceWith);
-         } catch (final BadLocationException ex) {
-            Plugin.log().error(ex);
-         }
+      final var searchString = this.searchString.get();
+      if (Strings.isEmpty(searchString))
+         return;
+
+      final SearchReplaceCore core;
+      final ReplacementTemplate template;
+      try {
+         core = new SearchReplaceCore(createSearchQuery(searchString));
+         template = core.compileReplacement(replaceWithString.get());
+      } catch (final IllegalArgumentException ex) {
+         showInvalidReplacementError(editor, ex);
+         return;
       }
 
-      search();
+      final var prevReplaceAllJob = replaceAllJob;
+      if (prevReplaceAllJob != null) {
+         prevReplaceAllJob.cancel();
+      }
+      final var content = DocumentSnapshot.of(doc);
+      final long modificationStamp = content.getModificationStamp();
+      final var job = new ReplaceAllJob(content, getContentName(editor), core, template, //
+         replacements -> UI.getDisplay().asyncExec(() -> applyReplacements(editor, doc, replacements, modificationStamp)));
+      replaceAllJob = job;
+      job.schedule();
    }
 
    public synchronized void replaceCurrentSelection() {
@@ -157,9 +521,12 @@ public synchronized void replaceCurrentSelection() {
       if (!(selection instanceof final ITextSelection sel) || sel.isEmpty() || sel.getLength() == 0)
          return;
 
+      final var replacement = computeReplacement(editor, doc, sel.getOffset(), sel.getLength());
+      if (replacement == null)
+         return;
+
       try {
-         markers.removeMarkerAt(sel);
-         final var replacement = replaceWithString.get();
+         // the marker of the replaced match is removed by the incremental search update
          doc.replace(sel.getOffset(), sel.getLength(), replacement);
          selProvider.setSelection(new TextSelection(sel.getOffset() + replacement.length(), 0));
       } catch (final BadLocationException ex) {
@@ -172,10 +539,17 @@ public synchronized boolean replaceNextMatch() {
    }
 
    private boolean replaceNextMatch(final @Nullable FindReplaceTarget target, final Direction direction) {
-      if (target == null || selectNextMatch(target, direction) == NOT_FOUND)
+      final var editor = Editors.getActiveTextEditor();
+      final var doc = editor == null ? null : Editors.getDocument(editor);
+      if (target == null || editor == null || doc == null || selectNextMatch(target, direction) == NOT_FOUND)
+         return false;
+
+      final var sel = target.getSelection();
+      final var replacement = computeReplacement(editor, doc, sel.x, sel.y);
+      if (replacement == null)
          return false;
 
-      target.replaceSelection(replaceWithString.get());
+      target.replaceSelection(replacement);
       return true;
    }
 
@@ -184,52 +558,209 @@ public synchronized boolean replacePreviousMatch() {
    }
 
    private synchronized void search() {
+      searchActiveEditor();
+      searchOpenEditors();
+      searchFiles();
+   }
+
+   private synchronized void searchActiveEditor() {
+      // invalidate the results of any search that is still in flight
+      final long generation = searchGeneration.incrementAndGet();
+      final var prevSearchJob = searchJob;
+      if (prevSearchJob != null) {
+         prevSearchJob.cancel();
+         searchJob = null;
+      }
+
+      searchedQuery = null;
+
       final var searchString = this.searchString.get();
       if (Strings.isEmpty(searchString)) {
-         matches.set(Collections.emptyList());
+         trackDocument(null);
+         setMatches(MatchSet.EMPTY);
          return;
       }
 
       final var doc = Editors.getActiveDocument();
+      trackDocument(doc);
       if (doc == null) {
-         matches.set(Collections.emptyList());
+         setMatches(MatchSet.EMPTY);
          return;
       }
 
-      final var content = doc.get();
-      if (Strings.isEmpty(content)) {
-         matches.set(Collections.emptyList());
+      final var query = createSearchQuery(searchString);
+      searchedQuery = query;
+
+      if (doc.getLength() == 0) {
+         setMatches(MatchSet.EMPTY);
          return;
       }
 
-      final List<Position> newMatches = new ArrayList<>();
+      searchedContentName = getContentName(Editors.getActiveTextEditor());
+      final var job = new SearchJob(DocumentSnapshot.of(doc), searchedContentName, query, //
+         newMatches -> UI.getDisplay().asyncExec(() -> publishMatches(generation, newMatches)), //
+         () -> UI.getDisplay().asyncExec(() -> publishTimeout(generation)));
+      searchJob = job;
+      job.schedule();
+   }
+
+   /**
+    * Searches the files of the active editor's project resp. of the workspace in the background if a file scope is enabled.
+    * The results are published in batches while the search is running.
+    */
+   private synchronized void searchFiles() {
+      final long generation = fileSearchGeneration.incrementAndGet();
+      final var prevJob = fileSearchJob;
+      if (prevJob != null) {
+         prevJob.cancel();
+         fileSearchJob = null;
+      }
+
+      fileMatches.set(List.of());
+
+      final var searchString = this.searchString.get();
+      final var scope = PluginPreferences.getSearchScope();
+      if (Strings.isEmpty(searchString) || !scope.isFileScope())
+         return;
 
-      final String regEx;
-      if (PluginPreferences.isMatchRegEx()) {
-         regEx = searchString;
+      final IContainer container;
+      if (scope == SearchScope.WORKSPACE) {
+         container = ResourcesPlugin.getWorkspace().getRoot();
       } else {
-         if (PluginPreferences.isMatchWholeWord()) {
-            regEx = "\\b" + Pattern.quote(searchString) + "\\b";
-         } else {
-            regEx = Pattern.quote(searchString);
+         final var editor = Editors.getActiveEditor();
+         final var file = editor == null ? null : editor.getEditorInput().getAdapter(IFile.class);
+         if (file == null)
+            return;
+         container = file.getProject();
+      }
+
+      final var pending = new ConcurrentLinkedQueue<FileMatches>();
+      final var isPublishScheduled = new AtomicBoolean();
+      final var job = new FileSearchJob(container, createSearchQuery(searchString), //
+         result -> {
+            pending.add(result);
+            // coalesce the results of files scanned in quick succession into one UI update
+            if (isPublishScheduled.compareAndSet(false, true)) {
+               UI.getDisplay().asyncExec(() -> {
+                  isPublishScheduled.set(false);
+                  publishFileMatches(generation, pending);
+               });
+            }
+         });
+      fileSearchJob = job;
+      // searching files is expensive, thus wait for the user to stop typing
+      job.schedule(FILE_SEARCH_DELAY_MS);
+   }
+
+   /**
+    * Scans the documents of all open text editors of the active workbench page in parallel if the "open editors" scope is
+    * enabled.
+    */
+   private synchronized void searchOpenEditors() {
+      final long generation = openEditorsSearchGeneration.incrementAndGet();
+      final var prevJob = openEditorsSearchJob;
+      if (prevJob != null) {
+         prevJob.cancel();
+         openEditorsSearchJob = null;
+      }
+
+      searchedEditors = List.of();
+      openEditorsMatches.set(List.of());
+
+      final var searchString = this.searchString.get();
+      final var page = UI.getActiveWorkbenchPage();
+      if (Strings.isEmpty(searchString) || page == null || PluginPreferences.getSearchScope() != SearchScope.OPEN_EDITORS)
+         return;
+
+      final var contents = new LinkedHashMap<ITextEditor, DocumentSnapshot>();
+      final var docs = Collections.newSetFromMap(new IdentityHashMap<IDocument, Boolean>());
+      for (final var editorRef : page.getEditorReferences()) {
+         // editors that were not restored yet are skipped
+         final var editor = editorRef.getEditor(false);
+         final var textEditor = editor == null ? null : editor.getAdapter(ITextEditor.class);
+         if (textEditor == null) {
+            continue;
+         }
+         final var doc = Editors.getDocument(textEditor);
+         if (doc != null && docs.add(doc)) {
+            contents.put(textEditor, DocumentSnapshot.of(doc));
          }
       }
+      if (contents.isEmpty())
+         return;
+
+      searchedEditors = List.copyOf(contents.keySet());
+      final var job = new OpenEditorsSearchJob(contents, createSearchQuery(searchString), //
+         editorMatches -> UI.getDisplay().asyncExec(() -> publishEditorMatches(generation, editorMatches)));
+      openEditorsSearchJob = job;
+      job.schedule();
+   }
+
+   private synchronized void publishEditorMatches(final long generation, final EditorMatches editorMatches) {
+      if (generation != openEditorsSearchGeneration.get())
+         return; // superseded by a newer search
+
+      final var results = new ArrayList<>(openEditorsMatches.get());
+      results.add(editorMatches);
+      results.sort(Comparator.comparingInt(result -> searchedEditors.indexOf(result.editor())));
+      openEditorsMatches.set(Collections.unmodifiableList(results));
+   }
+
+   private synchronized void publishFileMatches(final long generation, final Queue<FileMatches> pending) {
+      if (generation != fileSearchGeneration.get())
+         return; // superseded by a newer search
+
+      final var results = new ArrayList<>(fileMatches.get());
+      for (var result = pending.poll(); result != null; result = pending.poll()) {
+         results.add(result);
+      }
+      results.sort(Comparator.comparing(result -> result.file().getFullPath().toString()));
+      fileMatches.set(Collections.unmodifiableList(results));
+   }
+
+   private synchronized void publishMatches(final long generation, final MatchSet newMatches) {
+      if (generation != searchGeneration.get())
+         return; // superseded by a newer search
 
-      // Pattern is fast: https://www.baeldung.com/java-case-insensitive-string-matching
-      final var pattern = Pattern.compile(regEx, PluginPreferences.isMatchCase() ? 0 : Pattern.CASE_INSENSITIVE);
-      final var matcher = pattern.matcher(content);
-      while (matcher.find()) {
-         newMatches.add(new Position(matcher.start(), matcher.end() - matcher.start()));
+      if (newMatches.isCountComplete()) {
+         searchJob = null;
       }
 
-      matches.set(newMatches);
+      if (generation == publishedGeneration) {
+         // refined count of the already published truncated matches
+         matches.set(newMatches);
+         return;
+      }
+
+      publishedGeneration = generation;
+      setMatches(newMatches);
 
       if (PluginPreferences.isHighlightAll()) {
          addMarkers();
       }
    }
 
+   /**
+    * Publishes the abort of the search of the active editor. No matches are published, thus navigation and highlighting do
+    * not fall back to matching the regular expression on the UI thread.
+    */
+   private synchronized void publishTimeout(final long generation) {
+      if (generation != searchGeneration.get())
+         return; // superseded by a newer search
+
+      searchJob = null;
+      publishedGeneration = generation;
+      setMatches(MatchSet.EMPTY);
+      isRegExTimedOut.set(true);
+      removeMarkers();
+   }
+
    private int selectNextMatch(final @Nullable FindReplaceTarget target, final Direction direction) {
+      final var editor = Editors.getActiveTextEditor();
+      final var doc = editor == null ? null : Editors.getDocument(editor);
+      if (editor != null && doc != null && isMatchesUpToDate(doc))
+         return selectNextMatch(editor, direction);
+
       if (target == null)
          return NOT_FOUND;
 
@@ -273,9 +804,165 @@ private int selectNextMatch(final @Nullable FindReplaceTarget target, final Dire
       return index;
    }
 
-   private void shutdown() {
+   /**
+    * Selects the next match by binary search over the published matches.
+    */
+   private int selectNextMatch(final ITextEditor editor, final Direction direction) {
+      final var matches = this.matches.get();
+      if (matches.isEmpty())
+         return NOT_FOUND;
+
+      int index = indexOfNextMatch(matches, editor, direction);
+      if (index == NOT_FOUND) {
+         index = direction == Direction.FORWARD ? 0 : matches.size() - 1; // wrap around
+      }
+      return selectMatch(editor, matches, index);
+   }
+
+   /**
+    * Selects the next match continuing with the next resp. previous open editor once there is no further match in the active
+    * editor.
+    *
+    * @return the offset of the selected match or {@link #NOT_FOUND} if the open editors have not been searched resp. if a
+    *         document was modified since it was searched, in which case the open editors are searched again in the background
+    */
+   private int selectNextMatchInOpenEditors(final Direction direction) {
+      final var activeEditor = Editors.getActiveTextEditor();
+      final var results = openEditorsMatches.get();
+      if (activeEditor == null || results.isEmpty())
+         return NOT_FOUND;
+
+      int activeIndex = NOT_FOUND;
+      for (int i = 0; i < results.size(); i++) {
+         if (results.get(i).editor() == activeEditor) {
+            activeIndex = i;
+            break;
+         }
+      }
+
+      if (activeIndex != NOT_FOUND) {
+         final var activeMatches = getUpToDateMatches(results.get(activeIndex));
+         if (activeMatches == null) {
+            searchOpenEditors();
+            return NOT_FOUND;
+         }
+         final int index = indexOfNextMatch(activeMatches, activeEditor, direction);
+         if (index != NOT_FOUND)
+            return selectMatch(activeEditor, activeMatches, index);
+      }
+
+      // continue with the first resp. last match of the next editor having matches, wrapping around to the active editor
+      final int start = activeIndex != NOT_FOUND ? activeIndex : direction == Direction.FORWARD ? -1 : results.size();
+      for (int i = 1; i <= results.size(); i++) {
+         final var result = results.get(Math.floorMod(start + (direction == Direction.FORWARD ? i : -i), results.size()));
+         final var resultMatches = getUpToDateMatches(result);
+         if (resultMatches == null) {
+            searchOpenEditors();
+            return NOT_FOUND;
+         }
+         if (resultMatches.isEmpty()) {
+            continue;
+         }
+
+         final var editor = result.editor();
+         if (editor != activeEditor) {
+            editor.getSite().getPage().activate(editor);
+            // let the highlighting follow the active editor
+            searchActiveEditor();
+         }
+         return selectMatch(editor, resultMatches, direction == Direction.FORWARD ? 0 : resultMatches.size() - 1);
+      }
+      return NOT_FOUND;
+   }
+
+   private int selectMatch(final ITextEditor editor, final MatchSet matches, final int index) {
+      final int offset = matches.getOffset(index);
+      editor.selectAndReveal(offset, matches.getLength(index));
+      if (matches == this.matches.get()) {
+         selectedMatchIndex.set(index);
+      }
+      return offset;
+   }
+
+   /**
+    * Publishes the given matches as the matches of the current content of {@link #searchedDocument}.
+    */
+   private void setMatches(final MatchSet newMatches) {
+      searchedModificationStamp = getModificationStamp(searchedDocument);
+      selectedMatchIndex.set(NOT_FOUND);
+      isRegExTimedOut.set(false);
+      matches.set(newMatches);
+
+      // keep the result of the open editors search for the same document in sync
+      final var results = openEditorsMatches.get();
+      for (int i = 0; i < results.size(); i++) {
+         final var result = results.get(i);
+         if (result.document() == searchedDocument && searchedQuery != null) {
+            final var newResults = new ArrayList<>(results);
+            newResults.set(i, new EditorMatches(result.editor(), result.document(), newMatches, searchedModificationStamp));
+            openEditorsMatches.set(Collections.unmodifiableList(newResults));
+            break;
+         }
+      }
+   }
+
+   /**
+    * Sets the literal terms whose matches are highlighted in the active editor in addition to the matches of the current
+    * search, see {@link PinnedTermsHighlighter}.
+    */
+   public synchronized void setPinnedTerms(final List<AhoCorasickMatcher.Term> terms) {
+      pinnedTermsHighlighter.setTerms(terms);
+   }
+
+   private void showInvalidReplacementError(final ITextEditor editor, final IllegalArgumentException ex) {
+      MessageDialog.openError(editor.getSite().getShell(), Messages.FindView_InvalidReplacement_Title, //
+         NLS.bind(Messages.FindView_InvalidReplacement_Message, ex.getMessage()));
+   }
+
+   private synchronized void shutdown() {
+      searchGeneration.incrementAndGet();
+      final var searchJob = this.searchJob;
+      if (searchJob != null) {
+         searchJob.cancel();
+         this.searchJob = null;
+      }
+      final var replaceAllJob = this.replaceAllJob;
+      if (replaceAllJob != null) {
+         replaceAllJob.cancel();
+         this.replaceAllJob = null;
+      }
+      openEditorsSearchGeneration.incrementAndGet();
+      final var openEditorsSearchJob = this.openEditorsSearchJob;
+      if (openEditorsSearchJob != null) {
+         openEditorsSearchJob.cancel();
+         this.openEditorsSearchJob = null;
+      }
+      fileSearchGeneration.incrementAndGet();
+      final var fileSearchJob = this.fileSearchJob;
+      if (fileSearchJob != null) {
+         fileSearchJob.cancel();
+         this.fileSearchJob = null;
+      }
+      trackDocument(null);
       searchString.unsubscribe(this::search);
       PluginPreferences.removeListener(this::onPreferencesChanged);
       removeMarkers();
+      pinnedTermsHighlighter.dispose();
+   }
+
+   /**
+    * Registers the document listener for incremental search updates with the given document.
+    */
+   private void trackDocument(final @Nullable IDocument doc) {
+      final var searchedDocument = this.searchedDocument;
+      if (searchedDocument == doc)
+         return;
+      if (searchedDocument != null) {
+         searchedDocument.removeDocumentListener(documentListener);
+      }
+      if (doc != null) {
+         doc.addDocumentListener(documentListener);
+      }
+      this.searchedDocument = doc;
    }
 }
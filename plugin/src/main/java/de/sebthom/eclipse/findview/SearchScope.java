@@ -0,0 +1,40 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+/**
+ * @author Sebastian Thomschke
+ */
+public enum SearchScope {
+
+   /**
+    * only the active editor is searched
+    */
+   ACTIVE_EDITOR,
+
+   /**
+    * all open text editors are searched in addition to the active editor
+    */
+   OPEN_EDITORS,
+
+   /**
+    * the files of the active editor's project are searched in addition to the active editor
+    */
+   PROJECT,
+
+   /**
+    * the files of all open projects are searched in addition to the active editor
+    */
+   WORKSPACE;
+
+   /**
+    * @return true if files on disk are searched
+    */
+   public boolean isFileScope() {
+      return this == PROJECT || this == WORKSPACE;
+   }
+}
@@ -0,0 +1,418 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.sebthom.eclipse.findview.prefs.PluginPreferences;
+import de.sebthom.eclipse.findview.search.FileContents;
+import de.sebthom.eclipse.findview.search.TrigramFilter;
+
+/**
+ * Persistent index of the trigrams contained in the workspace files, used by the {@link FileSearchJob} to skip files that
+ * cannot contain a match.
+ * <p>
+ * For each indexed file a {@link TrigramFilter} is stored together with the file's last modification time and size on disk
+ * at indexing time. Files that are not indexed or whose time or size on disk differs are searched in full, as are all files as
+ * long as the index has not been reconciled with the workspace. The index
+ * <ul>
+ * <li>is loaded from the plugin's state location and reconciled with the workspace in the background on first use, which
+ * amounts to a full rebuild if no valid index file exists,
+ * <li>is kept up to date by re-indexing the files reported as changed by resource deltas,
+ * <li>is bounded to the configured maximum size, files exceeding it are not indexed,
+ * <li>is saved after reconciliation and when the plugin stops.
+ * </ul>
+ *
+ * @author Sebastian Thomschke
+ */
+final class WorkspaceIndex implements IResourceChangeListener {
+
+   /**
+    * The last modification time and size of a file on disk. Unlike the workspace's modification stamp of a file, they also
+    * change if the file is modified outside of Eclipse and the workspace has not been refreshed yet, while the file search
+    * reads the content from disk.
+    */
+   private record DiskStamp(long lastModified, long size) {
+
+      /**
+       * @return the stamp of the file at the given location or <code>null</code> if it does not exist or is not readable
+       */
+      static @Nullable DiskStamp of(final @Nullable IPath location) {
+         if (location == null)
+            return null;
+         try {
+            final var attrs = Files.readAttributes(location.toPath(), BasicFileAttributes.class);
+            return new DiskStamp(attrs.lastModifiedTime().toMillis(), attrs.size());
+         } catch (final IOException ex) {
+            return null;
+         }
+      }
+   }
+
+   private record Entry(DiskStamp stamp, TrigramFilter filter) {
+
+      /**
+       * approximate heap size of the entry including its path
+       */
+      long sizeInBytes(final String path) {
+         return 64L + 2L * path.length() + filter.sizeInBytes();
+      }
+   }
+
+   private static final String INDEX_FILE_NAME = "trigram-index.bin";
+   private static final int INDEX_FILE_MAGIC = 0x46565449; // "FVTI"
+   private static final int INDEX_FILE_VERSION = 2;
+
+   /**
+    * number of files indexed in parallel between two progress reports
+    */
+   private static final int INDEX_BATCH_SIZE = 256;
+
+   /**
+    * delay before changed files are re-indexed, so that bursts of changes, e.g. by a build, are processed at once
+    */
+   private static final long UPDATE_DELAY_MS = 2_000;
+
+   /**
+    * delay before an incomplete reconciliation, e.g. a canceled one, is retried
+    */
+   private static final long RECONCILE_RETRY_DELAY_MS = 60_000;
+
+   private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+   private static @Nullable WorkspaceIndex instance;
+
+   /**
+    * @return the index or <code>null</code> if indexing is disabled. The index is reconciled in the background on first access.
+    */
+   static synchronized @Nullable WorkspaceIndex get() {
+      final long maxSizeInBytes = PluginPreferences.getFileIndexMaxSize() * 1024L * 1024L;
+      if (maxSizeInBytes <= 0) {
+         shutdown();
+         return null;
+      }
+
+      var index = instance;
+      if (index == null) {
+         index = instance = new WorkspaceIndex(Plugin.get().getStateLocation().append(INDEX_FILE_NAME).toPath());
+         index.start();
+      }
+      index.maxSizeInBytes = maxSizeInBytes;
+      return index;
+   }
+
+   /**
+    * Stops tracking resource changes and saves the index.
+    */
+   static synchronized void shutdown() {
+      final var index = instance;
+      if (index != null) {
+         instance = null;
+         index.stop();
+      }
+   }
+
+   private final Path indexFile;
+   private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+   private final AtomicLong sizeInBytes = new AtomicLong();
+   private volatile long maxSizeInBytes;
+   private final Set<IFile> changedFiles = ConcurrentHashMap.newKeySet();
+
+   /**
+    * true once the index has been reconciled with the workspace, before that all files are searched in full
+    */
+   private volatile boolean isReconciled;
+   private volatile boolean isModified;
+   private volatile boolean isStopped;
+
+   private final Job reconcileJob = Job.create("Indexing workspace files", this::reconcile);
+   private final Job updateJob = Job.create("Updating workspace file index", this::update);
+
+   private WorkspaceIndex(final Path indexFile) {
+      this.indexFile = indexFile;
+      reconcileJob.setPriority(Job.DECORATE);
+      updateJob.setPriority(Job.DECORATE);
+      updateJob.setSystem(true);
+   }
+
+   private void index(final IFile file) {
+      final var path = file.getFullPath().toString();
+      final var location = file.getLocation();
+      if (location == null || !file.exists()) {
+         remove(path);
+         return;
+      }
+      if (sizeInBytes.get() >= maxSizeInBytes && !entries.containsKey(path))
+         return;
+
+      // read the stamp before the content, so that a concurrent modification leaves a stale entry behind
+      final var stamp = DiskStamp.of(location);
+      if (stamp == null) {
+         remove(path);
+         return;
+      }
+      try {
+         final var content = FileContents.read(location.toPath(), FileSearchJob.getCharset(file));
+         // binary files are skipped by the search anyway
+         put(path, new Entry(stamp, content == null ? TrigramFilter.EMPTY : TrigramFilter.of(content)));
+      } catch (final IOException ex) {
+         remove(path);
+      }
+   }
+
+   private void index(final List<IFile> files, final IProgressMonitor monitor) {
+      monitor.beginTask("Indexing " + files.size() + " files", files.size());
+      for (int i = 0; i < files.size() && !monitor.isCanceled(); i += INDEX_BATCH_SIZE) {
+         final var batch = files.subList(i, Math.min(files.size(), i + INDEX_BATCH_SIZE));
+         final var tasks = new ArrayList<Callable<@Nullable Void>>(batch.size());
+         for (final var file : batch) {
+            tasks.add(() -> {
+               index(file);
+               return null;
+            });
+         }
+         SearchPool.INSTANCE.invokeAll(tasks);
+         monitor.worked(batch.size());
+      }
+      monitor.done();
+   }
+
+   private void load() {
+      if (!Files.exists(indexFile))
+         return;
+
+      try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+         if (in.readInt() != INDEX_FILE_MAGIC || in.readInt() != INDEX_FILE_VERSION)
+            return;
+
+         for (int i = 0, count = in.readInt(); i < count; i++) {
+            final var path = in.readUTF();
+            final var stamp = new DiskStamp(in.readLong(), in.readLong());
+            final var words = new long[in.readUnsignedShort()];
+            for (int j = 0; j < words.length; j++) {
+               words[j] = in.readLong();
+            }
+            put(path, new Entry(stamp, TrigramFilter.fromWords(words)));
+         }
+      } catch (final IOException | IllegalArgumentException ex) {
+         // the index file is corrupt, thus rebuild the index from scratch
+         entries.clear();
+         sizeInBytes.set(0);
+      }
+      isModified = false;
+   }
+
+   /**
+    * @return false if the given file definitely does not contain all of the given trigrams
+    */
+   boolean mayContain(final IResourceProxy file, final long[] trigrams) {
+      if (trigrams.length == 0 || !isReconciled)
+         return true;
+
+      final var entry = entries.get(file.requestFullPath().toString());
+      if (entry == null || entry.filter().mayContainAll(trigrams))
+         return true;
+      // only files that would be skipped are checked for modifications on disk, e.g. by external tools
+      return !entry.stamp().equals(DiskStamp.of(file.requestResource().getLocation()));
+   }
+
+   private void put(final String path, final Entry entry) {
+      final var oldEntry = entries.put(path, entry);
+      sizeInBytes.addAndGet(entry.sizeInBytes(path) - (oldEntry == null ? 0 : oldEntry.sizeInBytes(path)));
+      isModified = true;
+   }
+
+   /**
+    * Indexes all files that are not indexed or whose index entry is outdated and removes the entries of deleted files.
+    */
+   private void reconcile(final IProgressMonitor monitor) {
+      if (entries.isEmpty()) {
+         load();
+      }
+
+      final var existingPaths = new HashSet<String>();
+      final var outdatedFiles = new ArrayList<IFile>();
+      try {
+         ResourcesPlugin.getWorkspace().getRoot().accept(proxy -> {
+            if (monitor.isCanceled())
+               throw new OperationCanceledException();
+            if (!FileSearchJob.isSearched(proxy))
+               return false;
+            if (proxy.getType() != IResource.FILE)
+               return true;
+
+            final var path = proxy.requestFullPath().toString();
+            existingPaths.add(path);
+            final var entry = entries.get(path);
+            if (entry == null || !entry.stamp().equals(DiskStamp.of(proxy.requestResource().getLocation()))) {
+               outdatedFiles.add((IFile) proxy.requestResource());
+            }
+            return false;
+         }, IResource.NONE);
+      } catch (final OperationCanceledException ex) {
+         retryReconcile();
+         return;
+      } catch (final CoreException ex) {
+         Plugin.log().error(ex);
+         retryReconcile();
+         return;
+      }
+
+      for (final var path : List.copyOf(entries.keySet())) {
+         if (!existingPaths.contains(path)) {
+            remove(path);
+         }
+      }
+
+      index(outdatedFiles, monitor);
+      if (monitor.isCanceled()) {
+         retryReconcile();
+      } else {
+         isReconciled = true;
+         save();
+      }
+   }
+
+   private void remove(final String path) {
+      final var oldEntry = entries.remove(path);
+      if (oldEntry != null) {
+         sizeInBytes.addAndGet(-oldEntry.sizeInBytes(path));
+         isModified = true;
+      }
+   }
+
+   /**
+    * Schedules another reconciliation after an incomplete one, as the index is not used before it has been reconciled.
+    */
+   private void retryReconcile() {
+      if (!isStopped) {
+         reconcileJob.schedule(RECONCILE_RETRY_DELAY_MS);
+      }
+   }
+
+   @Override
+   public void resourceChanged(final IResourceChangeEvent event) {
+      final var delta = event.getDelta();
+      if (delta == null)
+         return;
+
+      try {
+         delta.accept(child -> {
+            final var resource = child.getResource();
+            switch (resource.getType()) {
+               case IResource.FILE:
+                  if (child.getKind() == IResourceDelta.REMOVED) {
+                     remove(resource.getFullPath().toString());
+                  } else if (child.getKind() == IResourceDelta.ADDED //
+                        || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+                     changedFiles.add((IFile) resource);
+                  }
+                  return false;
+               case IResource.PROJECT:
+                  if ((child.getFlags() & IResourceDelta.OPEN) != 0 && resource.isAccessible()) {
+                     // the files of a re-opened project may have been modified while it was closed
+                     reconcileJob.schedule(UPDATE_DELAY_MS);
+                     return false;
+                  }
+                  return true;
+               default:
+                  return true;
+            }
+         });
+      } catch (final CoreException ex) {
+         Plugin.log().error(ex);
+      }
+
+      if (!changedFiles.isEmpty()) {
+         updateJob.schedule(UPDATE_DELAY_MS);
+      }
+   }
+
+   private synchronized void save() {
+      final var tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+      try {
+         try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            final var snapshot = List.copyOf(entries.entrySet());
+            out.writeInt(INDEX_FILE_MAGIC);
+            out.writeInt(INDEX_FILE_VERSION);
+            out.writeInt(snapshot.size());
+            for (final var entry : snapshot) {
+               out.writeUTF(entry.getKey());
+               out.writeLong(entry.getValue().stamp().lastModified());
+               out.writeLong(entry.getValue().stamp().size());
+               final var words = entry.getValue().filter().toWords();
+               out.writeShort(words.length);
+               for (final long word : words) {
+                  out.writeLong(word);
+               }
+            }
+         }
+         // replace the index file atomically, so that a crash does not leave a truncated index file behind
+         Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         isModified = false;
+      } catch (final IOException ex) {
+         Plugin.log().error(ex);
+      }
+   }
+
+   private void start() {
+      ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+      reconcileJob.schedule();
+   }
+
+   private void stop() {
+      isStopped = true;
+      ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+      reconcileJob.cancel();
+      updateJob.cancel();
+      try {
+         reconcileJob.join(SHUTDOWN_TIMEOUT_MS, null);
+         updateJob.join(SHUTDOWN_TIMEOUT_MS, null);
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+      }
+      if (isModified) {
+         save();
+      }
+   }
+
+   private void update(final IProgressMonitor monitor) {
+      final var files = List.copyOf(changedFiles);
+      changedFiles.removeAll(files);
+      index(files, monitor);
+   }
+}
@@ -0,0 +1,123 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.history;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Search term and options of an entry of the find history.
+ * <p>
+ * Independent of the UI, thus the history can be persisted and processed headlessly.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class HistoryEntry {
+
+   /**
+    * @return the entry serialized by {@link #serialize()}, missing trailing fields default to <code>false</code>
+    */
+   public static HistoryEntry deserialize(final String line) {
+      final var parts = line.split("\\|", -1);
+      final UnaryOperator<String> dec = (final String s) -> URLDecoder.decode(s, StandardCharsets.UTF_8);
+      final var find = parts.length > 0 ? dec.apply(parts[0]) : "";
+      final var replace = parts.length > 1 ? dec.apply(parts[1]) : "";
+      final var mc = parts.length > 2 && "1".equals(parts[2]);
+      final var mw = parts.length > 3 && "1".equals(parts[3]);
+      final var re = parts.length > 4 && "1".equals(parts[4]);
+      final var ha = parts.length > 5 && "1".equals(parts[5]);
+      final var pi = parts.length > 6 && "1".equals(parts[6]);
+      return new HistoryEntry(find, replace, mc, mw, re, ha, pi);
+   }
+
+   public final String find;
+   public final String replace;
+   public final boolean matchCase;
+   public final boolean matchWholeWord;
+   public final boolean matchRegEx;
+   public final boolean highlightAll;
+   public boolean pinned;
+
+   public HistoryEntry(final String find, final String replace, final boolean matchCase, final boolean matchWholeWord,
+         final boolean matchRegEx, final boolean highlightAll) {
+      this(find, replace, matchCase, matchWholeWord, matchRegEx, highlightAll, false);
+   }
+
+   public HistoryEntry(final String find, final String replace, final boolean matchCase, final boolean matchWholeWord,
+         final boolean matchRegEx, final boolean highlightAll, final boolean pinned) {
+      this.find = find;
+      this.replace = replace;
+      this.matchCase = matchCase;
+      this.matchWholeWord = matchWholeWord;
+      this.matchRegEx = matchRegEx;
+      this.highlightAll = highlightAll;
+      this.pinned = pinned;
+   }
+
+   @Override
+   public boolean equals(final @Nullable Object obj) {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof final HistoryEntry other))
+         return false;
+      return matchCase == other.matchCase //
+            && matchWholeWord == other.matchWholeWord //
+            && matchRegEx == other.matchRegEx //
+            && highlightAll == other.highlightAll //
+            && find.equals(other.find) //
+            && replace.equals(other.replace);
+   }
+
+   @Override
+   public int hashCode() {
+      int result = find.hashCode();
+      result = 31 * result + replace.hashCode();
+      result = 31 * result + (matchCase ? 1 : 0);
+      result = 31 * result + (matchWholeWord ? 1 : 0);
+      result = 31 * result + (matchRegEx ? 1 : 0);
+      result = 31 * result + (highlightAll ? 1 : 0);
+      return result;
+   }
+
+   /**
+    * @return the enabled options as a comma separated list for display
+    */
+   public String optionsDisplay() {
+      final var opts = new ArrayList<String>(4);
+      if (highlightAll) {
+         opts.add("All");
+      }
+      if (matchCase) {
+         opts.add("Case");
+      }
+      if (matchWholeWord) {
+         opts.add("Word");
+      }
+      if (matchRegEx) {
+         opts.add("RegEx");
+      }
+      return String.join(", ", opts);
+   }
+
+   /**
+    * @return the entry as a single line of <code>|</code> separated, URL encoded fields
+    */
+   public String serialize() {
+      return URLEncoder.encode(find, StandardCharsets.UTF_8) + '|' //
+            + URLEncoder.encode(replace, StandardCharsets.UTF_8) + '|' //
+            + (matchCase ? '1' : '0') + '|' //
+            + (matchWholeWord ? '1' : '0') + '|' //
+            + (matchRegEx ? '1' : '0') + '|' //
+            + (highlightAll ? '1' : '0') + '|' //
+            + (pinned ? '1' : '0');
+   }
+}
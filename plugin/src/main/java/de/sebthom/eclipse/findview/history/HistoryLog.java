@@ -0,0 +1,267 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.history;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of the changes of the find history, stored as UTF-8 text with one record per line. The history is restored by
+ * replaying the records in order, each record consists of an operation character followed by a {@link HistoryEntry#serialize()
+ * serialized} entry:
+ * <ul>
+ * <li><code>A</code> adds the entry as most recently used entry, replacing an equal entry,
+ * <li><code>U</code> updates the pinned state of the equal entry,
+ * <li><code>D</code> deletes the equal entry,
+ * <li><code>C</code> without entry deletes all unpinned entries.
+ * </ul>
+ * Changes are appended as complete lines and forced to disk. A last line without line break stems from an interrupted write
+ * and is ignored, as are malformed lines. Once the log contains {@link #COMPACTION_THRESHOLD} records more than the history
+ * has entries, it is compacted by writing one record per entry to a temporary file that atomically replaces the log.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class HistoryLog {
+
+   public static final String CLEARED = "C";
+
+   /**
+    * number of records beyond the number of entries after which the log is compacted
+    */
+   static final int COMPACTION_THRESHOLD = 256;
+
+   private static final String HEADER = "#findview-history 1";
+
+   private static final char ADDED = 'A';
+   private static final char UPDATED = 'U';
+   private static final char REMOVED = 'D';
+
+   /**
+    * @return the record adding the given entry as most recently used entry
+    */
+   public static String added(final HistoryEntry entry) {
+      return ADDED + entry.serialize();
+   }
+
+   /**
+    * Applies the given record to the given entries ordered from most to least recently used.
+    *
+    * @return false if the record is malformed
+    */
+   public static boolean apply(final List<HistoryEntry> entries, final String record) {
+      if (CLEARED.equals(record)) {
+         entries.removeIf(e -> !e.pinned);
+         return true;
+      }
+      if (record.length() < 2)
+         return false;
+
+      final HistoryEntry entry;
+      try {
+         entry = HistoryEntry.deserialize(record.substring(1));
+      } catch (final IllegalArgumentException ex) {
+         return false;
+      }
+      switch (record.charAt(0)) {
+         case ADDED:
+            entries.remove(entry);
+            entries.add(0, entry);
+            return true;
+         case UPDATED:
+            final int index = entries.indexOf(entry);
+            if (index > -1) {
+               entries.get(index).pinned = entry.pinned;
+            }
+            return true;
+         case REMOVED:
+            entries.remove(entry);
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   private static HistoryEntry copy(final HistoryEntry entry) {
+      return HistoryEntry.deserialize(entry.serialize());
+   }
+
+   /**
+    * @return the record deleting the given entry
+    */
+   public static String removed(final HistoryEntry entry) {
+      return REMOVED + entry.serialize();
+   }
+
+   /**
+    * @return the record updating the pinned state of the given entry
+    */
+   public static String updated(final HistoryEntry entry) {
+      return UPDATED + entry.serialize();
+   }
+
+   private final Path file;
+
+   /**
+    * the entries of the replayed log ordered from most to least recently used
+    */
+   private final List<HistoryEntry> entries = new ArrayList<>();
+
+   /**
+    * the number of records in the log file
+    */
+   private int recordCount;
+
+   /**
+    * set if the log file does not reflect the {@link #entries}, e.g. if it has a torn last line or an append failed
+    */
+   private boolean isCompactionRequired;
+
+   public HistoryLog(final Path file) {
+      this.file = file;
+   }
+
+   /**
+    * Applies the given records to the history and appends them to the log, compacting the log if required.
+    *
+    * @return the number of characters written
+    */
+   public int append(final List<String> records) throws IOException {
+      for (final var record : records) {
+         apply(entries, record);
+      }
+      if (isCompactionRequired || !Files.exists(file) || recordCount + records.size() > entries.size() + COMPACTION_THRESHOLD)
+         return compact();
+
+      final var sb = new StringBuilder();
+      for (final var record : records) {
+         sb.append(record).append('\n');
+      }
+      try (var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+         final var bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+         while (bytes.hasRemaining()) {
+            channel.write(bytes);
+         }
+         channel.force(false);
+      } catch (final IOException ex) {
+         // a partially written line would be glued to the next record, thus rewrite the log on the next change
+         isCompactionRequired = true;
+         throw ex;
+      }
+      recordCount += records.size();
+      return sb.length();
+   }
+
+   /**
+    * Replaces the log file by one {@link #added(HistoryEntry) added} record per entry, least recently used entry first.
+    *
+    * @return the number of characters written
+    */
+   public int compact() throws IOException {
+      final var tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+      int written = 0;
+      try (var channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+         StandardOpenOption.TRUNCATE_EXISTING)) {
+         final var out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+         out.write(HEADER);
+         out.write('\n');
+         written += HEADER.length() + 1;
+         for (int i = entries.size() - 1; i >= 0; i--) {
+            final var record = added(entries.get(i));
+            out.write(record);
+            out.write('\n');
+            written += record.length() + 1;
+         }
+         out.flush();
+         channel.force(false);
+      }
+      // replace the log file atomically, so that a crash does not leave a truncated log file behind
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      recordCount = entries.size();
+      isCompactionRequired = false;
+      return written;
+   }
+
+   public boolean exists() {
+      return Files.exists(file);
+   }
+
+   /**
+    * @return copies of the entries ordered from most to least recently used
+    */
+   public List<HistoryEntry> getEntries() {
+      final var result = new ArrayList<HistoryEntry>(entries.size());
+      for (final var entry : entries) {
+         result.add(copy(entry));
+      }
+      return result;
+   }
+
+   /**
+    * Restores the history by replaying the log file. A missing log file results in an empty history.
+    */
+   public void load() throws IOException {
+      entries.clear();
+      recordCount = 0;
+      isCompactionRequired = false;
+      if (!Files.exists(file))
+         return;
+
+      final var bytes = Files.readAllBytes(file);
+      int end = bytes.length;
+      while (end > 0 && bytes[end - 1] != '\n') {
+         end--;
+      }
+      // the last line of an interrupted append is torn, rewrite the log before appending to it again
+      isCompactionRequired = end < bytes.length;
+
+      final var lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n", -1);
+      if (lines.length == 0 || !HEADER.equals(lines[0])) {
+         // unknown format, thus start over
+         isCompactionRequired = true;
+         return;
+      }
+      for (int i = 1; i < lines.length; i++) {
+         final var line = lines[i];
+         if (line.isEmpty()) {
+            continue;
+         }
+         recordCount++;
+         if (!apply(entries, line)) {
+            isCompactionRequired = true;
+         }
+      }
+      if (recordCount > entries.size() + COMPACTION_THRESHOLD) {
+         isCompactionRequired = true;
+      }
+   }
+
+   /**
+    * Replaces the history by copies of the given entries and rewrites the log file.
+    *
+    * @param entries ordered from most to least recently used
+    */
+   public void reset(final List<HistoryEntry> entries) throws IOException {
+      this.entries.clear();
+      for (final var entry : entries) {
+         this.entries.add(copy(entry));
+      }
+      compact();
+   }
+}
@@ -32,6 +32,32 @@ public final class Messages {
    public static String FindView_MatchRegEx = lateNonNull();
    public static String FindView_MatchWholeWord = lateNonNull();
    public static String FindView_FindLabel = lateNonNull();
+   public static String FindView_Scope_ActiveEditor = "Active editor";
+   public static String FindView_Scope_OpenEditors = "All open editors";
+   public static String FindView_Scope_Project = "Project";
+   public static String FindView_Scope_Workspace = "Workspace";
+   public static String FindView_FileColumn = "File";
+   public static String FindView_MatchesColumn = "Matches";
+   public static String FindView_InvalidReplacement_Title = "Invalid Replacement";
+   public static String FindView_MatchNofM = "Match {0} of {1}";
+   public static String FindView_MatchesCounting = "{0}+ matches";
+   public static String FindView_MatchesInFiles = "{0} in {1} files";
+   public static String FindView_MatchesInOpenEditors = "{0} in {1} open editors";
+   public static String FindView_MatchesTruncated = "{0} matches, first {1} highlighted";
+   public static String FindView_RegExTimeout = "Search aborted: the regular expression made no progress within {0} ms";
+   public static String FindView_InvalidReplacement_Message = "The replacement string is invalid: {0}";
+   public static String FindView_Diagnostics_PhaseColumn = "Phase";
+   public static String FindView_Diagnostics_CountColumn = "Count";
+   public static String FindView_Diagnostics_P50Column = "p50 ms";
+   public static String FindView_Diagnostics_P90Column = "p90 ms";
+   public static String FindView_Diagnostics_P99Column = "p99 ms";
+   public static String FindView_Diagnostics_MaxColumn = "Max ms";
+   public static String FindView_Diagnostics_AvgDocCharsColumn = "Avg doc chars";
+   public static String FindView_Diagnostics_MaxDocCharsColumn = "Max doc chars";
+   public static String FindView_Diagnostics_AvgMatchesColumn = "Avg matches";
+   public static String FindView_Diagnostics_CopyAction = "Copy";
+   public static String FindView_Diagnostics_LogAction = "Log";
+   public static String FindView_Diagnostics_ResetAction = "Reset";
 
    static {
       MessagesInitializer.initializeMessages(BUNDLE_NAME, Messages.class);
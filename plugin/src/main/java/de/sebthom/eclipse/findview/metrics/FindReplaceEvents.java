@@ -0,0 +1,153 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.metrics;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the {@link Phase phases} of the Find/Replace view, one event type per phase. The events are
+ * listed in JDK Mission Control under "Eclipse / Find/Replace View" and can be correlated with GC pauses and UI thread stalls of
+ * the same recording.
+ * <p>
+ * Only loaded by {@link PhaseTimer} if the <code>jdk.jfr</code> module is available.
+ *
+ * @author Sebastian Thomschke
+ */
+final class FindReplaceEvents {
+
+   @Category({"Eclipse", "Find/Replace View"})
+   @StackTrace(false)
+   public abstract static class FindReplaceEvent extends Event {
+      @Label("Content")
+      @Description("Name of the searched editor input")
+      String content = "";
+
+      @Label("Document Length")
+      @Description("Number of characters of the processed document")
+      int documentLength;
+
+      @Label("Match Count")
+      @Description("Number of matches processed resp. found")
+      int matchCount;
+
+      @Label("Options")
+      @Description("Search options, without the search string")
+      String options = "";
+
+      @Label("Canceled")
+      boolean canceled;
+   }
+
+   @Name("de.sebthom.eclipse.findview.CompileMatcher")
+   @Label("Compile Matcher")
+   public static final class CompileMatcherEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.Search")
+   @Label("Search")
+   public static final class SearchEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.IncrementalUpdate")
+   @Label("Incremental Update")
+   public static final class IncrementalUpdateEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.SetMarkers")
+   @Label("Set Markers")
+   public static final class SetMarkersEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.UpdateMarkers")
+   @Label("Update Markers")
+   public static final class UpdateMarkersEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.ReplaceAllCompute")
+   @Label("Replace All: Compute")
+   public static final class ReplaceAllComputeEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.ReplaceAllApply")
+   @Label("Replace All: Apply")
+   public static final class ReplaceAllApplyEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.UpdateView")
+   @Label("Update View")
+   public static final class UpdateViewEvent extends FindReplaceEvent {
+   }
+
+   @Name("de.sebthom.eclipse.findview.PersistHistory")
+   @Label("Persist History")
+   public static final class PersistHistoryEvent extends FindReplaceEvent {
+   }
+
+   /**
+    * the event types indexed by {@link Phase#ordinal()}, checked before an event is allocated
+    */
+   private static final EventType[] EVENT_TYPES = new EventType[Phase.values().length];
+
+   static {
+      for (final var phase : Phase.values()) {
+         EVENT_TYPES[phase.ordinal()] = EventType.getEventType(newEvent(phase).getClass());
+      }
+   }
+
+   /**
+    * @return the began event of the given phase or <code>null</code> if its event type is not enabled in any recording
+    */
+   static @Nullable Object begin(final Phase phase) {
+      if (!EVENT_TYPES[phase.ordinal()].isEnabled())
+         return null;
+      final var event = newEvent(phase);
+      event.begin();
+      return event;
+   }
+
+   /**
+    * @param event an event returned by {@link #begin(Phase)}
+    */
+   static void commit(final Object event, final String content, final int documentLength, final int matchCount,
+         final String options, final boolean canceled) {
+      final var findReplaceEvent = (FindReplaceEvent) event;
+      findReplaceEvent.end();
+      if (findReplaceEvent.shouldCommit()) {
+         findReplaceEvent.content = content;
+         findReplaceEvent.documentLength = documentLength;
+         findReplaceEvent.matchCount = matchCount;
+         findReplaceEvent.options = options;
+         findReplaceEvent.canceled = canceled;
+         findReplaceEvent.commit();
+      }
+   }
+
+   private static FindReplaceEvent newEvent(final Phase phase) {
+      return switch (phase) {
+         case COMPILE_MATCHER -> new CompileMatcherEvent();
+         case SEARCH -> new SearchEvent();
+         case INCREMENTAL_UPDATE -> new IncrementalUpdateEvent();
+         case SET_MARKERS -> new SetMarkersEvent();
+         case UPDATE_MARKERS -> new UpdateMarkersEvent();
+         case REPLACE_ALL_COMPUTE -> new ReplaceAllComputeEvent();
+         case REPLACE_ALL_APPLY -> new ReplaceAllApplyEvent();
+         case UPDATE_VIEW -> new UpdateViewEvent();
+         case PERSIST_HISTORY -> new PersistHistoryEvent();
+      };
+   }
+
+   private FindReplaceEvents() {
+   }
+}
@@ -0,0 +1,127 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency metrics of the {@link Phase phases} of searching, highlighting and replacing, recorded for support and performance
+ * analysis. For each phase the number of executions is counted and the duration, the document length and the match count of
+ * the most recent {@link #HISTORY_SIZE} executions are kept in {@link RollingHistogram rolling histograms}.
+ * <p>
+ * Recording costs two {@link System#nanoTime()} calls and a few array writes per execution, thus phases are recorded
+ * unconditionally. Executions are timed by a {@link PhaseTimer}, which also emits them as Java Flight Recorder events.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class Metrics {
+
+   /**
+    * @param executions the number of executions since the metrics were reset
+    */
+   public record PhaseStats(Phase phase, long executions, RollingHistogram.Stats nanos, RollingHistogram.Stats documentLengths,
+         RollingHistogram.Stats matchCounts) {
+   }
+
+   private static final class PhaseMetrics {
+      final LongAdder executions = new LongAdder();
+      final RollingHistogram nanos = new RollingHistogram(HISTORY_SIZE);
+      final RollingHistogram documentLengths = new RollingHistogram(HISTORY_SIZE);
+      final RollingHistogram matchCounts = new RollingHistogram(HISTORY_SIZE);
+   }
+
+   /**
+    * number of most recent executions per phase the statistics are computed from
+    */
+   public static final int HISTORY_SIZE = 1_024;
+
+   /**
+    * the metrics of each phase indexed by {@link Phase#ordinal()}
+    */
+   private static final PhaseMetrics[] METRICS = new PhaseMetrics[Phase.values().length];
+
+   static {
+      for (int i = 0; i < METRICS.length; i++) {
+         METRICS[i] = new PhaseMetrics();
+      }
+   }
+
+   /**
+    * @return the metrics as a plain text table, e.g. for the plugin log or support tickets
+    */
+   public static String format() {
+      final var sb = new StringBuilder();
+      sb.append(String.format("%-22s %8s %10s %10s %10s %10s %14s %14s %11s%n", //
+         "Phase", "Count", "p50 ms", "p90 ms", "p99 ms", "max ms", "avg doc chars", "max doc chars", "avg matches"));
+      for (final var stats : snapshot()) {
+         if (stats.executions() == 0) {
+            continue;
+         }
+         final var nanos = stats.nanos();
+         sb.append(String.format("%-22s %8d %10s %10s %10s %10s %,14d %,14d %,11d%n", //
+            stats.phase().getLabel(), stats.executions(), //
+            formatMillis(nanos.p50()), formatMillis(nanos.p90()), formatMillis(nanos.p99()), formatMillis(nanos.max()), //
+            stats.documentLengths().mean(), stats.documentLengths().max(), stats.matchCounts().mean()));
+      }
+      return sb.toString();
+   }
+
+   public static String formatMillis(final long nanos) {
+      return String.format("%.3f", nanos / 1_000_000.0);
+   }
+
+   /**
+    * Records an execution of the given phase that started at the given {@link System#nanoTime()}.
+    *
+    * @param documentLength the length of the processed document or <code>0</code> if not applicable
+    * @param matchCount the number of matches processed resp. found
+    */
+   static void record(final Phase phase, final long startNanos, final int documentLength, final int matchCount) {
+      final long nanos = System.nanoTime() - startNanos;
+      final var metrics = METRICS[phase.ordinal()];
+      metrics.executions.increment();
+      metrics.nanos.record(nanos);
+      metrics.documentLengths.record(documentLength);
+      metrics.matchCounts.record(matchCount);
+   }
+
+   public static void reset() {
+      for (final var metrics : METRICS) {
+         metrics.executions.reset();
+         metrics.nanos.clear();
+         metrics.documentLengths.clear();
+         metrics.matchCounts.clear();
+      }
+   }
+
+   /**
+    * @return the statistics of all phases ordered like {@link Phase#values()}
+    */
+   public static List<PhaseStats> snapshot() {
+      final var result = new ArrayList<PhaseStats>(METRICS.length);
+      for (final var phase : Phase.values()) {
+         final var metrics = METRICS[phase.ordinal()];
+         result.add(new PhaseStats(phase, metrics.executions.sum(), metrics.nanos.stats(), metrics.documentLengths.stats(),
+            metrics.matchCounts.stats()));
+      }
+      return result;
+   }
+
+   /**
+    * Starts timing an execution of the given phase.
+    */
+   public static PhaseTimer start(final Phase phase) {
+      return new PhaseTimer(phase);
+   }
+
+   private Metrics() {
+   }
+}
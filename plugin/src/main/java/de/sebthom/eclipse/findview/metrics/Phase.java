@@ -0,0 +1,52 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.metrics;
+
+/**
+ * The timed phases of searching, highlighting and replacing.
+ *
+ * @author Sebastian Thomschke
+ */
+public enum Phase {
+
+   /** looking up resp. compiling the matcher of the search options */
+   COMPILE_MATCHER("Compile matcher"),
+
+   /** full scan of the active editor's document */
+   SEARCH("Search"),
+
+   /** rescan of the region of the active editor's document damaged by an edit */
+   INCREMENTAL_UPDATE("Incremental update"),
+
+   /** replacing the match annotations of the active editor */
+   SET_MARKERS("Set markers"),
+
+   /** patching the match annotations of the active editor after an edit */
+   UPDATE_MARKERS("Update markers"),
+
+   /** computing the replacements of "Replace All" */
+   REPLACE_ALL_COMPUTE("Replace all: compute"),
+
+   /** applying the replacements of "Replace All" to the document */
+   REPLACE_ALL_APPLY("Replace all: apply"),
+
+   /** refreshing the buttons and the match info of the Find/Replace view */
+   UPDATE_VIEW("Update view"),
+
+   /** storing the find history */
+   PERSIST_HISTORY("Persist history");
+
+   private final String label;
+
+   Phase(final String label) {
+      this.label = label;
+   }
+
+   public String getLabel() {
+      return label;
+   }
+}
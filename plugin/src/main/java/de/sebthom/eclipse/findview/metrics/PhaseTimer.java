@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.metrics;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import de.sebthom.eclipse.findview.search.SearchOptions;
+
+/**
+ * Times one execution of a {@link Phase}. Completed executions are recorded in the {@link Metrics}. If the Java Flight Recorder
+ * is available, each execution is also emitted as a JFR event, see {@link FindReplaceEvents}, which also covers canceled
+ * executions.
+ * <p>
+ * Not thread-safe, a timer must be stopped resp. canceled by the thread that started it.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class PhaseTimer {
+
+   private static final boolean IS_JFR_AVAILABLE = isJfrAvailable();
+
+   /**
+    * @return a description of the given options without the search string, thus recordings do not contain the user's text
+    */
+   static String describe(final SearchOptions options) {
+      return "matchCase=" + options.matchCase() //
+            + " matchWholeWord=" + options.matchWholeWord() //
+            + " matchRegEx=" + options.matchRegEx() //
+            + " engine=" + options.matcherEngine();
+   }
+
+   /**
+    * The bundle imports <code>jdk.jfr</code> optionally, as a runtime image may have been created without it.
+    */
+   private static boolean isJfrAvailable() {
+      try {
+         Class.forName("jdk.jfr.Event", false, PhaseTimer.class.getClassLoader());
+         return true;
+      } catch (final ClassNotFoundException | LinkageError ex) {
+         return false;
+      }
+   }
+
+   private final Phase phase;
+   private final long startNanos;
+
+   /**
+    * the began JFR event or <code>null</code> if the JFR is not available or the event type is not enabled. Typed as
+    * {@link Object}, so this class can be loaded without the <code>jdk.jfr</code> module.
+    */
+   private final @Nullable Object event;
+
+   private String contentName = "";
+   private String options = "";
+
+   PhaseTimer(final Phase phase) {
+      this.phase = phase;
+      event = IS_JFR_AVAILABLE ? FindReplaceEvents.begin(phase) : null;
+      startNanos = System.nanoTime();
+   }
+
+   /**
+    * Emits the JFR event of the execution flagged as canceled. The execution is not recorded in the {@link Metrics}.
+    *
+    * @param documentLength the length of the processed document or <code>0</code> if not applicable
+    * @param matchCount the number of matches processed resp. found so far
+    */
+   public void cancel(final int documentLength, final int matchCount) {
+      final var event = this.event;
+      if (event != null) {
+         FindReplaceEvents.commit(event, contentName, documentLength, matchCount, options, true);
+      }
+   }
+
+   /**
+    * Records the completed execution in the {@link Metrics} and emits its JFR event.
+    *
+    * @param documentLength the length of the processed document or <code>0</code> if not applicable
+    * @param matchCount the number of matches processed resp. found
+    */
+   public void stop(final int documentLength, final int matchCount) {
+      Metrics.record(phase, startNanos, documentLength, matchCount);
+      final var event = this.event;
+      if (event != null) {
+         FindReplaceEvents.commit(event, contentName, documentLength, matchCount, options, false);
+      }
+   }
+
+   /**
+    * Describes the processed content, only used for the JFR event.
+    *
+    * @param contentName e.g. the name of the editor input
+    */
+   public PhaseTimer withContent(final String contentName) {
+      this.contentName = contentName;
+      return this;
+   }
+
+   /**
+    * Describes the search options, only used for the JFR event.
+    */
+   public PhaseTimer withOptions(final SearchOptions options) {
+      this.options = describe(options);
+      return this;
+   }
+}
@@ -0,0 +1,77 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent samples of a value in a ring buffer, thus the statistics reflect the recent behavior and the memory
+ * used does not grow with the number of samples.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class RollingHistogram {
+
+   /**
+    * @param count the number of samples the statistics are computed from
+    */
+   public record Stats(int count, long min, long mean, long p50, long p90, long p99, long max) {
+      public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0, 0, 0);
+   }
+
+   /**
+    * @return the nearest-rank percentile of the given sorted values
+    */
+   private static long percentile(final long[] sorted, final int percent) {
+      final int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+      return sorted[Math.max(0, rank - 1)];
+   }
+
+   private final long[] samples;
+   private int size;
+   private int next;
+
+   /**
+    * @param capacity the number of most recent samples kept
+    */
+   public RollingHistogram(final int capacity) {
+      if (capacity < 1)
+         throw new IllegalArgumentException("[capacity] must be positive");
+      samples = new long[capacity];
+   }
+
+   public synchronized void clear() {
+      size = 0;
+      next = 0;
+   }
+
+   public synchronized void record(final long value) {
+      samples[next] = value;
+      next = (next + 1) % samples.length;
+      if (size < samples.length) {
+         size++;
+      }
+   }
+
+   public Stats stats() {
+      final long[] sorted;
+      synchronized (this) {
+         if (size == 0)
+            return Stats.EMPTY;
+         sorted = Arrays.copyOf(samples, size);
+      }
+      Arrays.sort(sorted);
+      long sum = 0;
+      for (final long value : sorted) {
+         sum += value;
+      }
+      return new Stats(sorted.length, sorted[0], sum / sorted.length, percentile(sorted, 50), percentile(sorted, 90),
+         percentile(sorted, 99), sorted[sorted.length - 1]);
+   }
+}
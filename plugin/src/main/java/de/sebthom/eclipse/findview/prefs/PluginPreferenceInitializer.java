@@ -8,6 +8,9 @@
 
 import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
 
+import de.sebthom.eclipse.findview.SearchScope;
+import de.sebthom.eclipse.findview.search.MatcherEngines;
+
 /**
  * @author Sebastian Thomschke
  */
@@ -16,9 +19,15 @@ public final class PluginPreferenceInitializer extends AbstractPreferenceInitial
    @Override
    public void initializeDefaultPreferences() {
       PluginPreferences.STORE.setDefault(PluginPreferences.PREF_CLOSE_WITH_ESC, false);
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_FILE_INDEX_MAX_SIZE, 64);
       PluginPreferences.STORE.setDefault(PluginPreferences.PREF_HIGHLIGHT_ALL, true);
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST, true);
       PluginPreferences.STORE.setDefault(PluginPreferences.PREF_MATCH_CASE, false);
       PluginPreferences.STORE.setDefault(PluginPreferences.PREF_MATCH_REGEX, false);
       PluginPreferences.STORE.setDefault(PluginPreferences.PREF_MATCH_WHOLEWORD, false);
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_MATCHER_ENGINE, MatcherEngines.JDK.getId());
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_MAX_MATCHES, 10_000);
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_REGEX_TIMEOUT, 1_000);
+      PluginPreferences.STORE.setDefault(PluginPreferences.PREF_SEARCH_SCOPE, SearchScope.ACTIVE_EDITOR.name());
    }
 }
@@ -6,11 +6,16 @@
  */
 package de.sebthom.eclipse.findview.prefs;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.RadioGroupFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 
+import de.sebthom.eclipse.findview.search.MatcherEngines;
+
 /**
  * @author Sebastian Thomschke
  */
@@ -30,6 +35,45 @@ protected void createFieldEditors() {
          }, //
          parent //
       ));
+
+      addField(new BooleanFieldEditor( //
+         PluginPreferences.PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST, //
+         "Highlight matches in the visible editor area first (speeds up highlighting in large files)", //
+         parent //
+      ));
+
+      final var maxMatches = new IntegerFieldEditor( //
+         PluginPreferences.PREF_MAX_MATCHES, //
+         "Maximum number of highlighted matches (further matches are only counted)", //
+         parent //
+      );
+      maxMatches.setValidRange(1, 10_000_000);
+      addField(maxMatches);
+
+      addField(new ComboFieldEditor( //
+         PluginPreferences.PREF_MATCHER_ENGINE, //
+         "Regular expression engine", //
+         MatcherEngines.getAll().stream() //
+            .map(engine -> new String[] {engine.getName(), engine.getId()}) //
+            .toArray(String[][]::new), //
+         parent //
+      ));
+
+      final var regExTimeout = new IntegerFieldEditor( //
+         PluginPreferences.PREF_REGEX_TIMEOUT, //
+         "Abort regular expression searches making no progress after (ms)", //
+         parent //
+      );
+      regExTimeout.setValidRange(100, 60_000);
+      addField(regExTimeout);
+
+      final var fileIndexMaxSize = new IntegerFieldEditor( //
+         PluginPreferences.PREF_FILE_INDEX_MAX_SIZE, //
+         "Maximum size of the workspace file index in MB (0 disables the index)", //
+         parent //
+      );
+      fileIndexMaxSize.setValidRange(0, 4_096);
+      addField(fileIndexMaxSize);
    }
 
    @Override
@@ -12,6 +12,7 @@
 import org.eclipse.jface.util.IPropertyChangeListener;
 
 import de.sebthom.eclipse.findview.Plugin;
+import de.sebthom.eclipse.findview.SearchScope;
 import net.sf.jstuff.core.io.RuntimeIOException;
 
 /**
@@ -20,10 +21,16 @@
 public final class PluginPreferences {
 
    public static final String PREF_CLOSE_WITH_ESC = "closeWithEsc";
+   public static final String PREF_FILE_INDEX_MAX_SIZE = "fileIndexMaxSize";
    public static final String PREF_HIGHLIGHT_ALL = "highlightAll";
+   public static final String PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST = "highlightVisibleRangeFirst";
    public static final String PREF_MATCH_CASE = "matchCase";
    public static final String PREF_MATCH_REGEX = "matchRegEx";
    public static final String PREF_MATCH_WHOLEWORD = "matchWholeWord";
+   public static final String PREF_MATCHER_ENGINE = "matcherEngine";
+   public static final String PREF_MAX_MATCHES = "maxMatches";
+   public static final String PREF_REGEX_TIMEOUT = "regExTimeout";
+   public static final String PREF_SEARCH_SCOPE = "searchScope";
    public static final String PREF_HISTORY = "history";
    public static final String PREF_HISTORY_AUTO_ADD = "historyAutoAdd";
 
@@ -33,6 +40,42 @@ public static void addListener(final IPropertyChangeListener listener) {
       STORE.addPropertyChangeListener(listener);
    }
 
+   /**
+    * @return the maximum size of the workspace file index in MB, <code>0</code> if indexing is disabled
+    */
+   public static int getFileIndexMaxSize() {
+      return STORE.getInt(PREF_FILE_INDEX_MAX_SIZE);
+   }
+
+   /**
+    * @return the id of the {@link de.sebthom.eclipse.findview.search.MatcherEngine} used for regular expression searches
+    */
+   public static String getMatcherEngine() {
+      return STORE.getString(PREF_MATCHER_ENGINE);
+   }
+
+   /**
+    * @return the maximum number of matches stored and highlighted per search, further matches are only counted
+    */
+   public static int getMaxMatches() {
+      return STORE.getInt(PREF_MAX_MATCHES);
+   }
+
+   /**
+    * @return the time in milliseconds after which regular expression matching that makes no progress is aborted
+    */
+   public static int getRegExTimeout() {
+      return STORE.getInt(PREF_REGEX_TIMEOUT);
+   }
+
+   public static SearchScope getSearchScope() {
+      try {
+         return SearchScope.valueOf(STORE.getString(PREF_SEARCH_SCOPE));
+      } catch (final IllegalArgumentException ex) {
+         return SearchScope.ACTIVE_EDITOR;
+      }
+   }
+
    public static boolean isCloseWithEsc() {
       return STORE.getBoolean(PREF_CLOSE_WITH_ESC);
    }
@@ -41,6 +84,10 @@ public static boolean isHighlightAll() {
       return STORE.getBoolean(PREF_HIGHLIGHT_ALL);
    }
 
+   public static boolean isHighlightVisibleRangeFirst() {
+      return STORE.getBoolean(PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST);
+   }
+
    public static boolean isMatchCase() {
       return STORE.getBoolean(PREF_MATCH_CASE);
    }
@@ -71,10 +118,18 @@ public static void setCloseWithEsc(final boolean value) {
       STORE.setValue(PREF_CLOSE_WITH_ESC, value);
    }
 
+   public static void setFileIndexMaxSize(final int value) {
+      STORE.setValue(PREF_FILE_INDEX_MAX_SIZE, value);
+   }
+
    public static void setHighlightAll(final boolean value) {
       STORE.setValue(PREF_HIGHLIGHT_ALL, value);
    }
 
+   public static void setHighlightVisibleRangeFirst(final boolean value) {
+      STORE.setValue(PREF_HIGHLIGHT_VISIBLE_RANGE_FIRST, value);
+   }
+
    public static void setMatchCase(final boolean value) {
       STORE.setValue(PREF_MATCH_CASE, value);
    }
@@ -86,6 +141,18 @@ public static void setMatchRegEx(final boolean value) {
       }
    }
 
+   public static void setMatcherEngine(final String value) {
+      STORE.setValue(PREF_MATCHER_ENGINE, value);
+   }
+
+   public static void setMaxMatches(final int value) {
+      STORE.setValue(PREF_MAX_MATCHES, value);
+   }
+
+   public static void setRegExTimeout(final int value) {
+      STORE.setValue(PREF_REGEX_TIMEOUT, value);
+   }
+
    public static void setMatchWholeWord(final boolean value) {
       STORE.setValue(PREF_MATCH_WHOLEWORD, value);
       if (value) {
@@ -93,6 +160,10 @@ public static void setMatchWholeWord(final boolean value) {
       }
    }
 
+   public static void setSearchScope(final SearchScope value) {
+      STORE.setValue(PREF_SEARCH_SCOPE, value.name());
+   }
+
    public static boolean isHistoryAutoAdd() {
       return STORE.getBoolean(PREF_HISTORY_AUTO_ADD);
    }
@@ -102,14 +173,14 @@ public static void setHistoryAutoAdd(final boolean value) {
    }
 
    /**
-    * Returns the serialized history string.
+    * Returns the serialized history string stored by earlier versions, which is migrated to the history log on first use.
     */
    public static String getHistory() {
       return STORE.getString(PREF_HISTORY);
    }
 
    /**
-    * Persists the serialized history string.
+    * Sets the serialized history string, only used to clear it once migrated to the history log.
     */
    public static void setHistory(final String value) {
       STORE.setValue(PREF_HISTORY, value);
@@ -0,0 +1,257 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Finds the matches of multiple plain search strings in a single pass over the text based on the Aho-Corasick algorithm,
+ * thus the running time is linear in the length of the text independent of the number of terms.
+ * <p>
+ * The matches of each term are the same as those of a {@link LiteralTextMatcher} created with the term's options, i.e. the
+ * matches of different terms may overlap, the matches of the same term do not.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class AhoCorasickMatcher {
+
+   public record Term(String text, boolean matchCase, boolean matchWholeWord) {
+      public Term {
+         if (text.isEmpty())
+            throw new IllegalArgumentException("[text] must not be empty");
+      }
+   }
+
+   private static final int ASCII_SIZE = 128;
+
+   /**
+    * Maximum number of states with a precomputed transition table for US-ASCII characters. The tables of the states closest to
+    * the root are computed, as those are the states most of the text is scanned in. Transitions of other states follow the
+    * failure links.
+    */
+   private static final int MAX_DENSE_STATES = 1_024;
+
+   /**
+    * Number of characters after which cancellation is checked.
+    */
+   private static final int CANCEL_CHECK_INTERVAL = 64 * 1024;
+
+   private static final int NONE = -1;
+
+   private static char foldCase(final char ch) {
+      return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+   }
+
+   private final List<Term> terms;
+
+   /**
+    * the length of each term
+    */
+   private final int[] termLengths;
+
+   /**
+    * the outgoing edges of each state sorted by character, characters are case folded for all terms. Case sensitive terms are
+    * verified when they are reported.
+    */
+   private final char[][] edgeChars;
+   private final int[][] edgeTargets;
+
+   /**
+    * the state of the longest proper suffix of each state's path that is also a path in the trie
+    */
+   private final int[] failures;
+
+   /**
+    * the terms ending in each state, excluding terms ending in states reachable via failure links
+    */
+   private final int[][] outputs;
+
+   /**
+    * the first state having outputs on the failure chain of each state including the state itself, or {@link #NONE}
+    */
+   private final int[] firstOutputs;
+
+   /**
+    * offset of each state's row in {@link #denseTransitions} or {@link #NONE}
+    */
+   private final int[] denseRows;
+   private final int[] denseTransitions;
+
+   public AhoCorasickMatcher(final List<Term> terms) {
+      this.terms = List.copyOf(terms);
+      termLengths = new int[terms.size()];
+
+      // build the trie
+      final var children = new ArrayList<TreeMap<Character, Integer>>();
+      final var terminals = new ArrayList<List<Integer>>();
+      children.add(new TreeMap<>());
+      terminals.add(new ArrayList<>());
+      for (int t = 0; t < this.terms.size(); t++) {
+         final var text = this.terms.get(t).text();
+         termLengths[t] = text.length();
+         int state = 0;
+         for (int i = 0; i < text.length(); i++) {
+            final var ch = foldCase(text.charAt(i));
+            var next = children.get(state).get(ch);
+            if (next == null) {
+               next = children.size();
+               children.get(state).put(ch, next);
+               children.add(new TreeMap<>());
+               terminals.add(new ArrayList<>());
+            }
+            state = next;
+         }
+         terminals.get(state).add(t);
+      }
+
+      final int stateCount = children.size();
+      edgeChars = new char[stateCount][];
+      edgeTargets = new int[stateCount][];
+      outputs = new int[stateCount][];
+      for (int state = 0; state < stateCount; state++) {
+         final var edges = children.get(state);
+         edgeChars[state] = new char[edges.size()];
+         edgeTargets[state] = new int[edges.size()];
+         int i = 0;
+         for (final var edge : edges.entrySet()) {
+            edgeChars[state][i] = edge.getKey();
+            edgeTargets[state][i] = edge.getValue();
+            i++;
+         }
+         outputs[state] = terminals.get(state).stream().mapToInt(Integer::intValue).toArray();
+      }
+
+      // compute failure links, outputs and transition tables in breadth-first order, thus all states a state's failure link
+      // may point to are complete when the state is processed
+      failures = new int[stateCount];
+      firstOutputs = new int[stateCount];
+      denseRows = new int[stateCount];
+      Arrays.fill(denseRows, NONE);
+      denseTransitions = new int[Math.min(stateCount, MAX_DENSE_STATES) * ASCII_SIZE];
+      int denseRowCount = 0;
+
+      final var queue = new ArrayDeque<Integer>();
+      queue.add(0);
+      while (!queue.isEmpty()) {
+         final int state = queue.poll();
+         final int failure = failures[state];
+         firstOutputs[state] = outputs[state].length > 0 ? state : state == 0 ? NONE : firstOutputs[failure];
+
+         if (denseRowCount < MAX_DENSE_STATES) {
+            final int row = denseRowCount++ * ASCII_SIZE;
+            denseRows[state] = row;
+            for (char ch = 0; ch < ASCII_SIZE; ch++) {
+               final int child = child(state, ch);
+               denseTransitions[row + ch] = child != NONE ? child : state == 0 ? 0 : denseTransitions[denseRows[failure] + ch];
+            }
+         }
+
+         final var targets = edgeTargets[state];
+         for (int i = 0; i < targets.length; i++) {
+            final int child = targets[i];
+            failures[child] = state == 0 ? 0 : next(failure, edgeChars[state][i]);
+            queue.add(child);
+         }
+      }
+   }
+
+   /**
+    * @return the target of the edge of the given state for the given case folded character or {@link #NONE}
+    */
+   private int child(final int state, final char ch) {
+      final int index = Arrays.binarySearch(edgeChars[state], ch);
+      return index < 0 ? NONE : edgeTargets[state][index];
+   }
+
+   /**
+    * Finds the matches of all terms.
+    *
+    * @param maxMatches the maximum number of matches stored per term, further matches are only counted
+    * @return the matches of each term indexed like {@link #getTerms()}, <code>null</code> if canceled
+    */
+   public @Nullable List<MatchSet> findAll(final CharSequence text, final int maxMatches, final BooleanSupplier isCanceled) {
+      final int termCount = terms.size();
+      final var builders = new MatchSet.Builder[termCount];
+      final int[] counts = new int[termCount];
+      final int[] lastMatchEnds = new int[termCount];
+      for (int t = 0; t < termCount; t++) {
+         builders[t] = new MatchSet.Builder();
+      }
+
+      final int length = text.length();
+      int state = 0;
+      for (int i = 0; i < length; i++) {
+         if (i % CANCEL_CHECK_INTERVAL == 0 && isCanceled.getAsBoolean())
+            return null;
+
+         state = next(state, text.charAt(i));
+         for (int outputState = firstOutputs[state]; outputState != NONE; outputState = firstOutputs[failures[outputState]]) {
+            for (final int t : outputs[outputState]) {
+               final int matchEnd = i + 1;
+               final int matchStart = matchEnd - termLengths[t];
+               final var term = terms.get(t);
+               // matches of the same term must not overlap
+               if (matchStart < lastMatchEnds[t] //
+                     || term.matchCase() && !regionMatches(text, matchStart, term.text()) //
+                     || term.matchWholeWord() && !LiteralTextMatcher.isWholeWord(text, matchStart, matchEnd)) {
+                  continue;
+               }
+               lastMatchEnds[t] = matchEnd;
+               if (counts[t]++ < maxMatches) {
+                  builders[t].add(matchStart, termLengths[t]);
+               }
+            }
+         }
+      }
+
+      final var result = new ArrayList<MatchSet>(termCount);
+      for (int t = 0; t < termCount; t++) {
+         final var matches = builders[t].build();
+         result.add(counts[t] > matches.size() ? matches.withTotalCount(counts[t], true) : matches);
+      }
+      return result;
+   }
+
+   public List<Term> getTerms() {
+      return terms;
+   }
+
+   /**
+    * @return the state reached from the given state by the given character
+    */
+   private int next(int state, final char ch) {
+      final var folded = foldCase(ch);
+      while (true) {
+         final int row = denseRows[state];
+         if (row != NONE && folded < ASCII_SIZE)
+            return denseTransitions[row + folded];
+         final int child = child(state, folded);
+         if (child != NONE)
+            return child;
+         if (state == 0)
+            return 0;
+         state = failures[state];
+      }
+   }
+
+   private boolean regionMatches(final CharSequence text, final int offset, final String term) {
+      for (int i = 0; i < term.length(); i++) {
+         if (text.charAt(offset + i) != term.charAt(i))
+            return false;
+      }
+      return true;
+   }
+}
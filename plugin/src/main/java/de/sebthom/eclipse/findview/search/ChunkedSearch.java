@@ -0,0 +1,266 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Scans a large document by splitting it into chunks that are scanned in parallel on a {@link ForkJoinPool}, producing the
+ * same matches as a sequential scan.
+ * <p>
+ * For plain search strings the chunks overlap by the maximum match length, so a match crossing a chunk boundary is found by
+ * the chunk it starts in. As the matches of a search string may overlap each other, e.g. <code>aa</code> in <code>aaa</code>,
+ * the matches of a chunk are only taken over once they are in sync with the match sequence of the preceding chunks, matches
+ * out of sync are re-scanned sequentially while merging. Regular expressions are split at line boundaries and only if they
+ * cannot match line breaks, thus every chunk starts in sync.
+ * <p>
+ * The chunks are merged in document order while the following chunks are still being scanned. Once the merged chunks hold the
+ * maximum number of stored matches, they are handed over early and the following chunks only count their matches.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class ChunkedSearch {
+
+   /**
+    * @param end the end of the range in which the chunk's matches start
+    * @param scanEnd the end of the range the chunk's matches may extend to
+    */
+   private record Chunk(int start, int end, int scanEnd) {
+   }
+
+   /**
+    * @param lastMatchEnd the end of the chunk's last match, stored or not, or -1 if the chunk has no matches
+    */
+   private record ChunkResult(MatchSet matches, int lastMatchEnd) {
+   }
+
+   /**
+    * Concatenates the matches of the chunks in document order, re-scanning the matches at the start of a chunk that overlap with
+    * the last match of the preceding chunk.
+    */
+   private static final class Merger {
+      final CharSequence text;
+      final TextMatcher textMatcher;
+      final int maxMatches;
+      final MatchSet.Builder merged = new MatchSet.Builder();
+      int count;
+
+      /**
+       * the offset from which a sequential scan would continue
+       */
+      int resumeAt;
+
+      Merger(final CharSequence text, final TextMatcher textMatcher, final int maxMatches) {
+         this.text = text;
+         this.textMatcher = textMatcher;
+         this.maxMatches = maxMatches;
+      }
+
+      void add(final Chunk chunk, final ChunkResult result) {
+         final var matches = result.matches();
+         int index = 0;
+
+         if (resumeAt > chunk.start()) {
+            // continue the match sequence of the preceding chunks until it coincides with a match of this chunk
+            boolean isInSync = false;
+            final var cursor = textMatcher.matcher(text, resumeAt, chunk.scanEnd());
+            while (cursor.find() && cursor.start() < chunk.end()) {
+               index = matches.indexOfFirstStartingAtOrAfter(index, cursor.start());
+               if (index < matches.size() && matches.getOffset(index) == cursor.start()) {
+                  isInSync = true;
+                  break;
+               }
+               if (count++ < maxMatches) {
+                  merged.add(cursor.start(), cursor.end() - cursor.start());
+               }
+               resumeAt = cursor.end();
+            }
+            if (!isInSync)
+               // all matches starting in this chunk have been re-scanned
+               return;
+         }
+
+         for (; index < matches.size(); index++) {
+            if (count++ < maxMatches) {
+               merged.add(matches.getOffset(index), matches.getLength(index));
+            }
+         }
+         count += matches.getTotalCount() - matches.size();
+         if (result.lastMatchEnd() >= 0) {
+            resumeAt = result.lastMatchEnd();
+         }
+      }
+
+      MatchSet build(final boolean isCountComplete) {
+         final var mergedMatches = merged.build();
+         return count > mergedMatches.size() ? mergedMatches.withTotalCount(count, isCountComplete) : mergedMatches;
+      }
+   }
+
+   /**
+    * Minimum number of characters per chunk, smaller chunks do not pay off the scheduling overhead.
+    */
+   static final int MIN_CHUNK_LENGTH = 1024 * 1024;
+
+   /**
+    * Number of chunks per worker thread, more chunks than threads balance different match densities of the chunks.
+    */
+   private static final int CHUNKS_PER_THREAD = 4;
+
+   /**
+    * Number of matches a chunk stores even if the preceding chunks already hold the maximum number of stored matches, so that
+    * the merge finds the match at which the chunk is in sync with the match sequence of the preceding chunks.
+    */
+   private static final int SYNC_MATCHES = 16;
+
+   /**
+    * Scans the given content on the given pool. The content is read by the pool threads via {@link DocumentSnapshot#fork()
+    * forks} and only sequentially by the calling thread.
+    *
+    * @param maxMatches the maximum number of matches stored, further matches are only counted
+    * @param onCountRefined invoked once the merged chunks exceed the match limit with the stored matches and an incomplete total
+    *           count and with the refined count after each further chunk has been merged
+    * @return the matches or <code>null</code> if the scan was canceled
+    * @throws WatchdogCharSequence.AbortedException if a regular expression made no progress within <code>regExTimeout</code>
+    */
+   public static @Nullable MatchSet findAll(final ForkJoinPool pool, final DocumentSnapshot content, final SearchOptions options,
+         final TextMatcher textMatcher, final int maxMatches, final long regExTimeout, final BooleanSupplier isCanceled,
+         final Consumer<MatchSet> onCountRefined) {
+      if (!canBeSplit(options))
+         throw new IllegalArgumentException("Matches of '" + options.searchString() + "' may span chunk boundaries.");
+
+      final var chunks = split(content, options, pool.getParallelism() * CHUNKS_PER_THREAD);
+
+      // stops the remaining chunks once one chunk failed
+      final var isAborted = new AtomicBoolean();
+      final BooleanSupplier isChunkCanceled = () -> isAborted.get() || isCanceled.getAsBoolean();
+
+      // set once the merged chunks hold maxMatches matches, thus the following chunks do not need to store theirs
+      final var isLimitReached = new AtomicBoolean(maxMatches == 0);
+
+      final var tasks = new ArrayList<ForkJoinTask<@Nullable ChunkResult>>(chunks.size());
+      for (final var chunk : chunks) {
+         final var reader = content.fork();
+         tasks.add(pool.submit(() -> scan(reader, chunk, textMatcher, maxMatches, regExTimeout, isLimitReached, isChunkCanceled)));
+      }
+
+      final var merger = new Merger(textMatcher.guard(content, regExTimeout, isCanceled), textMatcher, maxMatches);
+      @Nullable MatchSet storedMatches = null;
+      try {
+         for (int c = 0; c < chunks.size(); c++) {
+            final var result = tasks.get(c).get();
+            if (result == null || isCanceled.getAsBoolean())
+               return null;
+            merger.add(chunks.get(c), result);
+
+            if (merger.count >= maxMatches) {
+               isLimitReached.set(true);
+            }
+            if (storedMatches != null) {
+               onCountRefined.accept(storedMatches.withTotalCount(merger.count, false));
+            } else if (merger.count > maxMatches && c < chunks.size() - 1) {
+               // hand over the stored matches while the following chunks are still being counted
+               storedMatches = merger.build(false);
+               onCountRefined.accept(storedMatches);
+            }
+         }
+      } catch (final InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         return null;
+      } catch (final ExecutionException ex) {
+         if (ex.getCause() instanceof final RuntimeException cause)
+            throw cause;
+         throw new IllegalStateException(ex.getCause());
+      } finally {
+         isAborted.set(true);
+      }
+      return merger.build(true);
+   }
+
+   /**
+    * @return true if the matches of the given options never cross a chunk boundary, i.e. plain search strings, whose chunks
+    *         overlap, and regular expressions that cannot match line breaks, whose chunks end at line boundaries. A regular
+    *         expression like <code>(?is)foo.*bar</code> may span any number of lines and thus chunks.
+    */
+   private static boolean canBeSplit(final SearchOptions options) {
+      return !options.matchRegEx() || !IncrementalSearch.canMatchLineBreak(options.searchString());
+   }
+
+   /**
+    * @return true if the given content is large enough to be scanned in chunks and the matches of the given options can be
+    *         found chunk by chunk
+    */
+   public static boolean isApplicable(final CharSequence content, final SearchOptions options, final ForkJoinPool pool) {
+      return pool.getParallelism() > 1 //
+            && content.length() >= 2 * MIN_CHUNK_LENGTH //
+            && canBeSplit(options);
+   }
+
+   /**
+    * Scans the matches starting in the given chunk. Once the given limit flag is set, only the first {@link #SYNC_MATCHES}
+    * matches of the chunk are stored.
+    *
+    * @return the result or <code>null</code> if the scan was canceled
+    */
+   private static @Nullable ChunkResult scan(final CharSequence content, final Chunk chunk, final TextMatcher textMatcher,
+         final int maxMatches, final long regExTimeout, final AtomicBoolean isLimitReached, final BooleanSupplier isCanceled) {
+      final var text = textMatcher.guard(content, regExTimeout, isCanceled);
+      final var matches = new MatchSet.Builder();
+      int count = 0;
+      int lastMatchEnd = -1;
+      final var cursor = textMatcher.matcher(text, chunk.start(), chunk.scanEnd());
+      while (cursor.find()) {
+         // matches starting in the overlap belong to the next chunk, an empty match at the end of the text to the last chunk
+         if (cursor.start() >= chunk.end() && chunk.end() < text.length()) {
+            break;
+         }
+         if (count % TextMatcher.CANCEL_CHECK_INTERVAL == 0 && isCanceled.getAsBoolean())
+            return null;
+         if (count < maxMatches && (count < SYNC_MATCHES || !isLimitReached.get())) {
+            matches.add(cursor.start(), cursor.end() - cursor.start());
+         }
+         count++;
+         lastMatchEnd = cursor.end();
+      }
+      return new ChunkResult(matches.build().withTotalCount(count, true), lastMatchEnd);
+   }
+
+   /**
+    * Splits the content into chunks of about the same size. Chunks of plain search strings overlap by the length of the
+    * search string minus one, chunks of regular expressions end at line boundaries.
+    */
+   private static List<Chunk> split(final CharSequence content, final SearchOptions options, final int maxChunks) {
+      final int length = content.length();
+      final int chunkCount = Math.max(1, Math.min(maxChunks, length / MIN_CHUNK_LENGTH));
+      final int overlap = options.matchRegEx() ? 0 : options.searchString().length() - 1;
+      final var chunks = new ArrayList<Chunk>(chunkCount);
+      int start = 0;
+      for (int c = 1; c <= chunkCount && start < length; c++) {
+         int end = (int) ((long) length * c / chunkCount);
+         if (options.matchRegEx() && end < length) {
+            end = IncrementalSearch.lineEnd(content, end);
+         }
+         if (end > start) {
+            chunks.add(new Chunk(start, end, Math.min(length, end + overlap)));
+            start = end;
+         }
+      }
+      return chunks;
+   }
+
+   private ChunkedSearch() {
+   }
+}
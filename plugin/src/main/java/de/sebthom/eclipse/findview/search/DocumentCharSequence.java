@@ -0,0 +1,54 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Live {@link CharSequence} view of an {@link IDocument} that reads characters on demand instead of copying the document's content.
+ * <p>
+ * Must only be used from the thread that modifies the document, usually the UI thread.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class DocumentCharSequence implements CharSequence {
+
+   private final IDocument doc;
+
+   public DocumentCharSequence(final IDocument doc) {
+      this.doc = doc;
+   }
+
+   @Override
+   public char charAt(final int index) {
+      try {
+         return doc.getChar(index);
+      } catch (final BadLocationException ex) {
+         throw new IndexOutOfBoundsException(index);
+      }
+   }
+
+   @Override
+   public int length() {
+      return doc.getLength();
+   }
+
+   @Override
+   public CharSequence subSequence(final int start, final int end) {
+      try {
+         return doc.get(start, end - start);
+      } catch (final BadLocationException ex) {
+         throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ")");
+      }
+   }
+
+   @Override
+   public String toString() {
+      return doc.get();
+   }
+}
@@ -0,0 +1,194 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ISynchronizable;
+
+/**
+ * Read-only {@link CharSequence} view of the content an {@link IDocument} had at a given modification stamp, which can be
+ * scanned from a worker thread without copying the whole document.
+ * <p>
+ * The content is read lazily in chunks from the document's text store. If the document is modified after the snapshot was
+ * taken, any further read access fails with a {@link StaleSnapshotException}, so results computed from a stale snapshot can
+ * be detected and discarded.
+ * <p>
+ * A snapshot may be handed over to another thread but must not be read by multiple threads concurrently, each thread needs its
+ * own {@link #fork() fork} instead. It must be {@link #close() closed} after use.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class DocumentSnapshot implements CharSequence, AutoCloseable {
+
+   /**
+    * Thrown when reading from a snapshot whose document has been modified since the snapshot was taken.
+    */
+   public static final class StaleSnapshotException extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      StaleSnapshotException() {
+         super("Document was modified after the snapshot was taken.");
+      }
+   }
+
+   private static final int CHUNK_SIZE = 16 * 1024;
+
+   /**
+    * Takes a snapshot of the document's current state.
+    */
+   public static DocumentSnapshot of(final IDocument doc) {
+      return new DocumentSnapshot(doc);
+   }
+
+   private final IDocument doc;
+
+   /**
+    * the snapshot tracking the modifications of the document, <code>this</code> unless the snapshot is a {@link #fork()}
+    */
+   private final DocumentSnapshot origin;
+   private final @Nullable Object lock;
+   private final long modificationStamp;
+   private final int length;
+
+   /**
+    * set before the document's text store is modified, only maintained by the {@link #origin}
+    */
+   private volatile boolean isStale;
+
+   private final IDocumentListener staleMarker = new IDocumentListener() {
+      @Override
+      public void documentAboutToBeChanged(final DocumentEvent event) {
+         isStale = true;
+      }
+
+      @Override
+      public void documentChanged(final DocumentEvent event) {
+      }
+   };
+
+   private String chunk = "";
+   private int chunkStart;
+
+   private DocumentSnapshot(final IDocument doc) {
+      this.doc = doc;
+      origin = this;
+      lock = doc instanceof final ISynchronizable synchronizable ? synchronizable.getLockObject() : null;
+      modificationStamp = getCurrentModificationStamp();
+      length = doc.getLength();
+      doc.addDocumentListener(staleMarker);
+   }
+
+   private DocumentSnapshot(final DocumentSnapshot origin) {
+      doc = origin.doc;
+      this.origin = origin;
+      lock = origin.lock;
+      modificationStamp = origin.modificationStamp;
+      length = origin.length;
+   }
+
+   @Override
+   public char charAt(final int index) {
+      int offsetInChunk = index - chunkStart;
+      if (offsetInChunk < 0 || offsetInChunk >= chunk.length()) {
+         if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(index);
+         chunkStart = index - index % CHUNK_SIZE;
+         chunk = read(chunkStart, Math.min(CHUNK_SIZE, length - chunkStart));
+         offsetInChunk = index - chunkStart;
+      }
+      return chunk.charAt(offsetInChunk);
+   }
+
+   /**
+    * Closes the snapshot. Closing a fork has no effect, the snapshot it was forked from must be closed after all forks were read.
+    */
+   @Override
+   public void close() {
+      if (origin == this) {
+         doc.removeDocumentListener(staleMarker);
+      }
+   }
+
+   /**
+    * @return a snapshot of the same content with its own read buffer, which can be read concurrently to this snapshot. It is
+    *         stale whenever this snapshot is stale.
+    */
+   public DocumentSnapshot fork() {
+      return new DocumentSnapshot(origin);
+   }
+
+   private long getCurrentModificationStamp() {
+      return doc instanceof final IDocumentExtension4 docExt //
+            ? docExt.getModificationStamp()
+            : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+   }
+
+   public IDocument getDocument() {
+      return doc;
+   }
+
+   /**
+    * @return the modification stamp of the document at the time the snapshot was taken or
+    *         {@link IDocumentExtension4#UNKNOWN_MODIFICATION_STAMP}
+    */
+   public long getModificationStamp() {
+      return modificationStamp;
+   }
+
+   /**
+    * @return true if the document has been modified since the snapshot was taken
+    */
+   public boolean isStale() {
+      return origin.isStale || modificationStamp != getCurrentModificationStamp();
+   }
+
+   @Override
+   public int length() {
+      return length;
+   }
+
+   private String read(final int offset, final int len) {
+      if (isStale())
+         throw new StaleSnapshotException();
+
+      final String text;
+      try {
+         if (lock == null) {
+            text = doc.get(offset, len);
+         } else {
+            synchronized (lock) {
+               text = doc.get(offset, len);
+            }
+         }
+      } catch (final BadLocationException | RuntimeException ex) {
+         // the text store was modified concurrently
+         throw new StaleSnapshotException();
+      }
+
+      // the document may have been modified while reading
+      if (isStale())
+         throw new StaleSnapshotException();
+      return text;
+   }
+
+   @Override
+   public CharSequence subSequence(final int start, final int end) {
+      if (start < 0 || end > length || start > end)
+         throw new IndexOutOfBoundsException("Invalid range [" + start + ", " + end + ")");
+      return read(start, end - start);
+   }
+
+   @Override
+   public String toString() {
+      return read(0, length);
+   }
+}
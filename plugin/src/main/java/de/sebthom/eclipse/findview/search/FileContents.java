@@ -0,0 +1,148 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Reads the content of files for searching.
+ * <p>
+ * Files in ISO-8859-1 and pure ASCII files in ASCII-compatible charsets like UTF-8 are searched directly in the bytes read,
+ * all other files are decoded.
+ * <p>
+ * Files are read into the heap and not mapped into memory via {@link FileChannel#map(FileChannel.MapMode, long, long)},
+ * because a mapping lives until it is garbage collected and on Windows prevents the file from being modified or deleted
+ * meanwhile.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class FileContents {
+
+   /**
+    * Read-only character view on the bytes of a buffer, valid if each byte represents the character of the same code point.
+    */
+   private static final class ByteCharSequence implements CharSequence {
+
+      private final ByteBuffer buffer;
+      private final int offset;
+      private final int length;
+
+      ByteCharSequence(final ByteBuffer buffer, final int offset, final int length) {
+         this.buffer = buffer;
+         this.offset = offset;
+         this.length = length;
+      }
+
+      @Override
+      public char charAt(final int index) {
+         if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(index);
+         return (char) (buffer.get(offset + index) & 0xFF);
+      }
+
+      @Override
+      public int length() {
+         return length;
+      }
+
+      @Override
+      public CharSequence subSequence(final int start, final int end) {
+         if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+         return new ByteCharSequence(buffer, offset + start, end - start);
+      }
+
+      @Override
+      public String toString() {
+         final var bytes = new byte[length];
+         buffer.get(offset, bytes);
+         return new String(bytes, StandardCharsets.ISO_8859_1);
+      }
+   }
+
+   /**
+    * number of leading bytes checked for NUL bytes to detect binary files
+    */
+   private static final int BINARY_CHECK_LENGTH = 8 * 1024;
+
+   private static boolean isAscii(final ByteBuffer buffer) {
+      for (int i = 0, l = buffer.limit(); i < l; i++) {
+         if (buffer.get(i) < 0)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * @return true if the charset encodes the ASCII characters as single bytes of the same value
+    */
+   private static boolean isAsciiCompatible(final Charset charset) {
+      final var name = charset.name();
+      return charset.equals(StandardCharsets.UTF_8) //
+            || charset.equals(StandardCharsets.US_ASCII) //
+            || name.startsWith("ISO-8859-") //
+            || name.startsWith("windows-125");
+   }
+
+   private static boolean isBinary(final ByteBuffer buffer) {
+      for (int i = 0, l = Math.min(buffer.limit(), BINARY_CHECK_LENGTH); i < l; i++) {
+         if (buffer.get(i) == 0)
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * @return the content of the given file or <code>null</code> if the file is binary or too large to be read into an array
+    */
+   public static @Nullable CharSequence read(final Path file, final Charset charset) throws IOException {
+      ByteBuffer buffer;
+      try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         final long size = channel.size();
+         if (size > Integer.MAX_VALUE)
+            return null;
+         if (size == 0)
+            return "";
+
+         buffer = ByteBuffer.allocate((int) size);
+         while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until the buffer is full or the file was truncated in the meantime
+         }
+         buffer.flip();
+      }
+
+      final boolean isAsciiCompatible = isAsciiCompatible(charset);
+      if (isAsciiCompatible && isBinary(buffer))
+         return null;
+
+      // the byte order mark is not part of the document content shown by editors
+      if (charset.equals(StandardCharsets.UTF_8) && buffer.limit() >= 3 //
+            && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+         buffer = buffer.position(3).slice();
+      }
+
+      if (charset.equals(StandardCharsets.ISO_8859_1) || isAsciiCompatible && isAscii(buffer))
+         return new ByteCharSequence(buffer, 0, buffer.limit());
+
+      return charset.newDecoder() //
+         .onMalformedInput(CodingErrorAction.REPLACE) //
+         .onUnmappableCharacter(CodingErrorAction.REPLACE) //
+         .decode(buffer);
+   }
+
+   private FileContents() {
+   }
+}
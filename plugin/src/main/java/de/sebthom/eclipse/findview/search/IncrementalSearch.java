@@ -0,0 +1,227 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Updates a list of matches after a document edit by only rescanning the damaged region of the document.
+ * <p>
+ * The damaged region is the edited range widened by the maximum match span for literal searches or to the enclosing lines
+ * for regular expressions. Matches before the region are kept as is, matches after the region are shifted by the length delta
+ * of the edit.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class IncrementalSearch {
+
+   /**
+    * Describes how to turn the matches of the previous document state into the matches of the current document state:
+    * the matches in the index range [{@link #fromIndex}, {@link #toIndex}) are replaced by {@link #replacement} and all
+    * matches after that range are moved by {@link #shift} characters.
+    */
+   public record Update(int fromIndex, int toIndex, MatchSet replacement, int shift) {
+
+      public MatchSet applyTo(final MatchSet matches) {
+         return new MatchSet.Builder(matches.size() - (toIndex - fromIndex) + replacement.size()) //
+            .addAll(matches, 0, fromIndex, 0) //
+            .addAll(replacement, 0, replacement.size(), 0) //
+            .addAll(matches, toIndex, matches.size(), shift) //
+            .build();
+      }
+   }
+
+   /**
+    * Regular expression constructs that may match line breaks, in which case a match may span an arbitrary number of lines.
+    */
+   private static final String[] LINE_BREAK_CAPABLE_REGEX_CONSTRUCTS = { //
+      "\\s", "\\S", "\\n", "\\r", "\\R", "\\v", "\\V", "\\H", "\\W", "\\D", "\\X", //
+      "\\p", "\\P", "\\u", "\\x", "\\0", "\\c", "\\N", "\\Z", "\\z", //
+      "[^", "\n", "\r" //
+   };
+
+   /**
+    * Inline flags that let constructs match line breaks: <code>s</code> (DOTALL) lets <code>.</code> match any line break,
+    * <code>d</code> (UNIX_LINES) lets <code>.</code> match <code>\r</code> and <code>x</code> (COMMENTS) changes how
+    * whitespace and escapes are interpreted.
+    */
+   private static final String LINE_BREAK_CAPABLE_REGEX_FLAGS = "sdx";
+
+   /**
+    * @return true if matches of the given regular expression may span multiple lines. The check is conservative, i.e. it may
+    *         return true for expressions that in fact never match a line break.
+    */
+   static boolean canMatchLineBreak(final String regEx) {
+      for (final var construct : LINE_BREAK_CAPABLE_REGEX_CONSTRUCTS) {
+         if (regEx.contains(construct))
+            return true;
+      }
+      return containsLineBreakCapableRange(regEx) || enablesLineBreakCapableFlag(regEx);
+   }
+
+   /**
+    * @return true if a character class of the given regular expression contains a range that may include <code>\n</code> or
+    *         <code>\r</code> without naming them, e.g. <code>[\t-~]</code> or <code>[\a-z]</code>. Ranges starting with a
+    *         literal character following <code>\r</code>, e.g. <code>[a-z]</code>, cannot include line breaks, the lower bound
+    *         of other ranges is not evaluated.
+    */
+   private static boolean containsLineBreakCapableRange(final String regEx) {
+      int classDepth = 0;
+      // true if the current class contains an escape, which may be the lower bound of a range
+      boolean isEscapeInClass = false;
+      for (int i = 0; i < regEx.length(); i++) {
+         switch (regEx.charAt(i)) {
+            case '\\' -> {
+               isEscapeInClass |= classDepth > 0;
+               i++; // skip the escaped character
+            }
+            case '[' -> {
+               classDepth++;
+               isEscapeInClass = false;
+               if (i + 1 < regEx.length() && regEx.charAt(i + 1) == '^') {
+                  i++;
+               }
+               // a closing bracket at the start of a class is a literal
+               if (i + 1 < regEx.length() && regEx.charAt(i + 1) == ']') {
+                  i++;
+               }
+            }
+            case ']' -> classDepth = Math.max(0, classDepth - 1);
+            case '-' -> {
+               // a hyphen at the start or the end of a class is a literal
+               final boolean isRange = classDepth > 0 && "[^".indexOf(regEx.charAt(i - 1)) == -1 && i + 1 < regEx.length()
+                     && regEx.charAt(i + 1) != ']';
+               if (isRange && (isEscapeInClass || regEx.charAt(i - 1) <= '\r'))
+                  return true;
+            }
+            default -> {
+               // nothing to do
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return true if an inline flag group <code>(?flags)</code> or <code>(?flags:X)</code> of the given regular expression turns
+    *         on one of the {@link #LINE_BREAK_CAPABLE_REGEX_FLAGS}, e.g. <code>(?is)</code> or <code>(?m-i:s)</code>
+    */
+   private static boolean enablesLineBreakCapableFlag(final String regEx) {
+      for (int start = regEx.indexOf("(?"); start > -1; start = regEx.indexOf("(?", start + 2)) {
+         boolean isEnabling = true;
+         boolean hasLineBreakCapableFlag = false;
+         for (int i = start + 2; i < regEx.length(); i++) {
+            final char ch = regEx.charAt(i);
+            if (ch == ')' || ch == ':') {
+               if (hasLineBreakCapableFlag)
+                  return true;
+               break;
+            }
+            if (ch == '-') {
+               isEnabling = false;
+            } else if (Character.isLetter(ch)) {
+               hasLineBreakCapableFlag |= isEnabling && LINE_BREAK_CAPABLE_REGEX_FLAGS.indexOf(ch) > -1;
+            } else {
+               // not a flag group, e.g. a lookaround or a named group
+               break;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Computes the changes to the given matches caused by replacing <code>removedLength</code> characters at <code>offset</code>
+    * with <code>insertedLength</code> characters.
+    *
+    * @param matches the sorted, non-overlapping matches of the document state before the edit
+    * @param text the document content after the edit
+    * @return <code>null</code> if the matches cannot be updated incrementally and a full search is required
+    */
+   public static @Nullable Update computeUpdate(final MatchSet matches, final CharSequence text, final SearchOptions options,
+         final TextMatcher textMatcher, final int offset, final int removedLength, final int insertedLength) {
+      final int delta = insertedLength - removedLength;
+      final int editEnd = offset + insertedLength;
+      final int textLength = text.length();
+
+      // the region in which matches may have been added or removed by the edit
+      final int damageStart;
+      final int damageEnd;
+      final int scanEnd;
+      if (options.matchRegEx()) {
+         if (canMatchLineBreak(options.searchString()))
+            return null;
+         damageStart = lineStart(text, offset);
+         damageEnd = lineEnd(text, editEnd);
+         scanEnd = damageEnd;
+      } else {
+         final int maxMatchSpan = options.searchString().length() + (options.matchWholeWord() ? 1 : 0);
+         damageStart = Math.max(0, offset - maxMatchSpan);
+         damageEnd = Math.min(textLength, editEnd + maxMatchSpan);
+         scanEnd = Math.min(textLength, damageEnd + maxMatchSpan);
+      }
+
+      // matches ending before the damaged region are not affected by the edit
+      final int fromIndex = matches.indexOfFirstEndingAtOrAfter(damageStart);
+      final int scanStart = fromIndex < matches.size() ? Math.min(damageStart, matches.getOffset(fromIndex)) : damageStart;
+
+      // rescan the damaged region, continuing the non-overlapping match sequence of the unaffected matches before it
+      final var replacement = new MatchSet.Builder();
+      int lastMatchEnd = scanStart;
+      final var matcher = textMatcher.matcher(text, scanStart, scanEnd);
+      while (matcher.find()) {
+         if (matcher.start() >= damageEnd) {
+            break;
+         }
+         replacement.add(matcher.start(), matcher.end() - matcher.start());
+         lastMatchEnd = matcher.end();
+      }
+
+      // beyond the damaged region the old matches are still valid if the old match sequence is in sync with the new one,
+      // i.e. no old match straddles the position from which the new match sequence continues
+      final int resumeAt = Math.max(lastMatchEnd, damageEnd);
+      final int toIndex = matches.indexOfFirstStartingAtOrAfter(fromIndex, resumeAt - delta);
+      if (toIndex > fromIndex && matches.getEnd(toIndex - 1) + delta > resumeAt)
+         return null;
+
+      return new Update(fromIndex, toIndex, replacement.build(), delta);
+   }
+
+   /**
+    * @return offset of the first character of the line containing the given offset
+    */
+   private static int lineStart(final CharSequence text, final int offset) {
+      int i = Math.min(offset, text.length());
+      while (i > 0) {
+         final char ch = text.charAt(i - 1);
+         if (ch == '\n' || ch == '\r') {
+            break;
+         }
+         i--;
+      }
+      return i;
+   }
+
+   /**
+    * @return offset after the line delimiter of the line containing the given offset
+    */
+   static int lineEnd(final CharSequence text, final int offset) {
+      final int textLength = text.length();
+      int i = offset;
+      while (i < textLength) {
+         final char ch = text.charAt(i++);
+         if (ch == '\n')
+            return i;
+         if (ch == '\r')
+            return i < textLength && text.charAt(i) == '\n' ? i + 1 : i;
+      }
+      return textLength;
+   }
+
+   private IncrementalSearch() {
+   }
+}
@@ -0,0 +1,260 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import static de.sebthom.eclipse.findview.search.RegExProgram.*;
+
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@link TextMatcher} that simulates the automaton of a {@link RegExProgram} on all possible paths in lock-step (Pike VM),
+ * thus it inspects each character at most once per instruction and its running time is linear in the length of the text
+ * independent of the regular expression.
+ * <p>
+ * The threads of the automaton are kept in priority order, which results in the same leftmost-first matches as the backtracking
+ * {@link java.util.regex} engine. Like {@link java.util.regex}, character classes match a supplementary character of the text
+ * as a whole, threads consuming a surrogate pair skip the text position between its surrogates.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class LinearRegExTextMatcher implements TextMatcher {
+
+   /**
+    * The threads of the automaton at a text position in priority order, implemented as a sparse set of instruction addresses.
+    */
+   private static final class ThreadList {
+      final int[] pcs;
+      final int[] starts;
+      private final int[] indexes;
+      int size;
+
+      ThreadList(final int programSize) {
+         pcs = new int[programSize];
+         starts = new int[programSize];
+         indexes = new int[programSize];
+      }
+
+      void add(final int pc, final int start) {
+         pcs[size] = pc;
+         starts[size] = start;
+         indexes[pc] = size++;
+      }
+
+      boolean contains(final int pc) {
+         final int index = indexes[pc];
+         return index < size && pcs[index] == pc;
+      }
+   }
+
+   /**
+    * @return the matcher or <code>null</code> if the pattern uses constructs or flags not supported by this engine
+    */
+   static @Nullable LinearRegExTextMatcher compile(final Pattern pattern) {
+      if ((pattern.flags() & ~Pattern.CASE_INSENSITIVE) != 0)
+         return null;
+      try {
+         return new LinearRegExTextMatcher(pattern,
+            RegExProgram.compile(pattern.pattern(), (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0));
+      } catch (final UnsupportedSyntaxException ex) {
+         return null;
+      }
+   }
+
+   private final Pattern pattern;
+   private final RegExProgram program;
+
+   private LinearRegExTextMatcher(final Pattern pattern, final RegExProgram program) {
+      this.pattern = pattern;
+      this.program = program;
+   }
+
+   @Override
+   public Pattern getPattern() {
+      return pattern;
+   }
+
+   @Override
+   public Cursor matcher(final CharSequence text, final int regionStart, final int regionEnd) {
+      return new Cursor() {
+         private ThreadList threads = new ThreadList(program.size);
+         private ThreadList nextThreads = new ThreadList(program.size);
+         /** threads continuing after a surrogate pair consumed at the current position */
+         private ThreadList afterNextThreads = new ThreadList(program.size);
+         private final int[] stack = new int[program.size * 2 + 1];
+         private int searchFrom = regionStart;
+         private int start = -1;
+         private int end = -1;
+
+         /**
+          * Adds the thread at the given instruction and all threads reachable from it without consuming a character.
+          */
+         private void addThread(final ThreadList list, final int pc, final int matchStart, final int index) {
+            final int[] ops = program.ops;
+            int top = 0;
+            stack[top++] = pc;
+            while (top > 0) {
+               final int current = stack[--top];
+               if (list.contains(current)) {
+                  continue;
+               }
+               list.add(current, matchStart);
+               switch (ops[current]) {
+                  case OP_JUMP -> stack[top++] = program.args1[current];
+                  case OP_SPLIT -> {
+                     // the preferred branch is processed first
+                     stack[top++] = program.args2[current];
+                     stack[top++] = program.args1[current];
+                  }
+                  case OP_ASSERT -> {
+                     if (holds(program.args1[current], index)) {
+                        stack[top++] = current + 1;
+                     }
+                  }
+                  default -> {
+                     // consuming instruction or match
+                  }
+               }
+            }
+         }
+
+         @Override
+         public int end() {
+            return end;
+         }
+
+         @Override
+         public boolean find() {
+            if (searchFrom > regionEnd)
+               return false;
+            if (!run(searchFrom)) {
+               searchFrom = regionEnd + 1;
+               return false;
+            }
+            // continue after an empty match with the next character like java.util.regex
+            searchFrom = end == start ? end + 1 : end;
+            return true;
+         }
+
+         private boolean holds(final int assertion, final int index) {
+            final int length = text.length();
+            return switch (assertion) {
+               case ASSERT_BEGIN -> index == 0;
+               case ASSERT_END -> {
+                  // end of input or before a line terminator at the end of input, but not between \r and \n
+                  if (index == length)
+                     yield true;
+                  if (index == length - 2)
+                     yield text.charAt(index) == '\r' && text.charAt(index + 1) == '\n';
+                  if (index == length - 1) {
+                     final char ch = text.charAt(index);
+                     if (ch == '\n')
+                        yield index == 0 || text.charAt(index - 1) != '\r';
+                     yield ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+                  }
+                  yield false;
+               }
+               case ASSERT_END_OF_INPUT -> index == length;
+               case ASSERT_WORD_BOUNDARY, ASSERT_NOT_WORD_BOUNDARY -> {
+                  final boolean isBoundary = (index > 0 && WordChars.isWordCharBefore(text, index)) //
+                        != (index < length && WordChars.isWordChar(text, index));
+                  yield isBoundary == (assertion == ASSERT_WORD_BOUNDARY);
+               }
+               default -> throw new IllegalStateException("Unknown assertion: " + assertion);
+            };
+         }
+
+         /**
+          * Runs the automaton for the leftmost match starting at or after the given offset.
+          */
+         private boolean run(final int from) {
+            final int[] ops = program.ops;
+            final int[] args1 = program.args1;
+            final int[] args2 = program.args2;
+            final CharSet firstChars = program.firstChars;
+            int matchStart = -1;
+            int matchEnd = -1;
+
+            threads.size = 0;
+            nextThreads.size = 0;
+            for (int i = from;; i++) {
+               if (matchStart < 0) {
+                  if (threads.size == 0 && nextThreads.size == 0 && firstChars != null) {
+                     // no match in progress, skip characters no match can start with
+                     while (i < regionEnd && !firstChars.contains(text.charAt(i))) {
+                        i++;
+                     }
+                     if (i == regionEnd)
+                        return false;
+                  }
+                  // a match starting here has the lowest priority of all
+                  if (!program.isStartAtLowSurrogateSkipped || i == from || i == regionEnd //
+                        || !Character.isLowSurrogate(text.charAt(i)) || !Character.isHighSurrogate(text.charAt(i - 1))) {
+                     addThread(threads, 0, i, i);
+                  }
+               }
+               if (threads.size == 0 && nextThreads.size == 0 && matchStart >= 0) {
+                  break;
+               }
+
+               final boolean hasChar = i < regionEnd;
+               final char ch = hasChar ? text.charAt(i) : 0;
+               // character classes consume a surrogate pair as a whole, the threads continuing after the pair skip the position
+               // of the low surrogate
+               final boolean isSurrogatePair = Character.isHighSurrogate(ch) && i + 1 < regionEnd
+                     && Character.isLowSurrogate(text.charAt(i + 1));
+               afterNextThreads.size = 0;
+               for (int t = 0; t < threads.size; t++) {
+                  final int pc = threads.pcs[t];
+                  final boolean isMatch = switch (ops[pc]) {
+                     case OP_CHAR -> hasChar && (ch == args1[pc] || ch == args2[pc]);
+                     case OP_CLASS -> hasChar && (isSurrogatePair //
+                           ? program.classes[args1[pc]].containsSupplementary()
+                           : program.classes[args1[pc]].contains(ch));
+                     case OP_MATCH -> {
+                        matchStart = threads.starts[t];
+                        matchEnd = i;
+                        yield false;
+                     }
+                     default -> false;
+                  };
+                  if (isMatch) {
+                     if (ops[pc] == OP_CLASS && isSurrogatePair) {
+                        addThread(afterNextThreads, pc + 1, threads.starts[t], i + 2);
+                     } else {
+                        addThread(nextThreads, pc + 1, threads.starts[t], i + 1);
+                     }
+                  } else if (ops[pc] == OP_MATCH) {
+                     // threads of lower priority than the matching one are discarded
+                     break;
+                  }
+               }
+
+               final var swap = threads;
+               threads = nextThreads;
+               nextThreads = afterNextThreads;
+               afterNextThreads = swap;
+               if (!hasChar) {
+                  break;
+               }
+            }
+
+            if (matchStart < 0)
+               return false;
+            start = matchStart;
+            end = matchEnd;
+            return true;
+         }
+
+         @Override
+         public int start() {
+            return start;
+         }
+      };
+   }
+}
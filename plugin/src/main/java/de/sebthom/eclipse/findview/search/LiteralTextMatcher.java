@@ -0,0 +1,177 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.Arrays;
+
+/**
+ * {@link TextMatcher} for plain search strings based on the Boyer-Moore-Horspool algorithm.
+ * <p>
+ * Produces the same matches as the regular expression <code>\b\Q&lt;searchString&gt;\E\b</code> resp.
+ * <code>\Q&lt;searchString&gt;\E</code> compiled with or without {@link java.util.regex.Pattern#CASE_INSENSITIVE}, i.e. case
+ * folding is limited to US-ASCII characters, but avoids the overhead of the general regular expression machinery.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class LiteralTextMatcher implements TextMatcher {
+
+   /**
+    * The bad character shift table is indexed by the low byte of a character. Characters sharing the same low byte share the
+    * smallest shift of all of them, which keeps the table small while still being correct.
+    */
+   private static final int SHIFT_TABLE_SIZE = 256;
+
+   private static char foldCase(final char ch) {
+      return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+   }
+
+   /**
+    * @return true if the given range is enclosed by word boundaries like <code>\b&lt;range&gt;\b</code>
+    */
+   static boolean isWholeWord(final CharSequence text, final int start, final int end) {
+      final boolean startsWithWordChar = WordChars.isWordChar(text, start);
+      final boolean precededByWordChar = start > 0 && WordChars.isWordCharBefore(text, start);
+      if (startsWithWordChar == precededByWordChar)
+         return false;
+
+      final boolean endsWithWordChar = WordChars.isWordCharBefore(text, end);
+      final boolean followedByWordChar = end < text.length() && WordChars.isWordChar(text, end);
+      return endsWithWordChar != followedByWordChar;
+   }
+
+   private final String searchString;
+   private final boolean matchCase;
+   private final boolean matchWholeWord;
+
+   /**
+    * the search string, case folded if not {@link #matchCase}
+    */
+   private final char[] needle;
+   private final int[] shifts = new int[SHIFT_TABLE_SIZE];
+
+   public LiteralTextMatcher(final String searchString, final boolean matchCase, final boolean matchWholeWord) {
+      if (searchString.isEmpty())
+         throw new IllegalArgumentException("[searchString] must not be empty");
+
+      this.searchString = searchString;
+      this.matchCase = matchCase;
+      this.matchWholeWord = matchWholeWord;
+
+      needle = searchString.toCharArray();
+      if (!matchCase) {
+         for (int i = 0; i < needle.length; i++) {
+            needle[i] = foldCase(needle[i]);
+         }
+      }
+
+      final int last = needle.length - 1;
+      Arrays.fill(shifts, needle.length);
+      // shifts only decrease with increasing i, thus colliding characters end up with the smallest shift
+      for (int i = 0; i < last; i++) {
+         final char ch = needle[i];
+         shifts[ch % SHIFT_TABLE_SIZE] = last - i;
+         if (!matchCase && ch >= 'a' && ch <= 'z') {
+            shifts[(ch - ('a' - 'A')) % SHIFT_TABLE_SIZE] = last - i;
+         }
+      }
+   }
+
+   /**
+    * @return the offset of the first match starting at or after <code>from</code> and ending at or before <code>to</code>,
+    *         or -1 if none
+    */
+   public int find(final CharSequence text, final int from, final int to) {
+      final char[] needle = this.needle;
+      final int last = needle.length - 1;
+      final char lastChar = needle[last];
+      final int limit = to - needle.length;
+
+      int i = from;
+      if (matchCase) {
+         while (i <= limit) {
+            final char ch = text.charAt(i + last);
+            if (ch == lastChar) {
+               int j = last - 1;
+               while (j >= 0 && text.charAt(i + j) == needle[j]) {
+                  j--;
+               }
+               if (j < 0 && isWholeWordMatch(text, i)) //
+                  return i;
+            }
+            i += shifts[ch % SHIFT_TABLE_SIZE];
+         }
+      } else {
+         while (i <= limit) {
+            final char ch = text.charAt(i + last);
+            if (foldCase(ch) == lastChar) {
+               int j = last - 1;
+               while (j >= 0 && foldCase(text.charAt(i + j)) == needle[j]) {
+                  j--;
+               }
+               if (j < 0 && isWholeWordMatch(text, i)) //
+                  return i;
+            }
+            i += shifts[ch % SHIFT_TABLE_SIZE];
+         }
+      }
+      return -1;
+   }
+
+   public String getSearchString() {
+      return searchString;
+   }
+
+   /**
+    * @return true if whole word matching is disabled or the match at the given offset is enclosed by word boundaries
+    */
+   private boolean isWholeWordMatch(final CharSequence text, final int matchStart) {
+      return !matchWholeWord || isWholeWord(text, matchStart, matchStart + needle.length);
+   }
+
+   public boolean isMatchCase() {
+      return matchCase;
+   }
+
+   public boolean isMatchWholeWord() {
+      return matchWholeWord;
+   }
+
+   @Override
+   public Cursor matcher(final CharSequence text, final int regionStart, final int regionEnd) {
+      return new Cursor() {
+         private int nextFrom = regionStart;
+         private int start = -1;
+
+         @Override
+         public int end() {
+            if (start < 0)
+               throw new IllegalStateException("No match available");
+            return start + needle.length;
+         }
+
+         @Override
+         public boolean find() {
+            if (nextFrom > regionEnd)
+               return false;
+            start = LiteralTextMatcher.this.find(text, nextFrom, regionEnd);
+            if (start < 0) {
+               nextFrom = regionEnd + 1;
+               return false;
+            }
+            nextFrom = start + needle.length;
+            return true;
+         }
+
+         @Override
+         public int start() {
+            if (start < 0)
+               throw new IllegalStateException("No match available");
+            return start;
+         }
+      };
+   }
+}
@@ -0,0 +1,239 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.Position;
+
+/**
+ * Immutable, sorted set of non-overlapping matches stored as packed <code>(offset, length)</code> int pairs.
+ * <p>
+ * Compared to a <code>List&lt;Position&gt;</code> this needs 8 bytes per match instead of about 40 and creates no objects per
+ * match. {@link Position} objects are only created on demand via {@link #getPosition(int)} or {@link #asPositions()}.
+ * <p>
+ * A match set may be {@link #isTruncated() truncated}, i.e. only contain the first matches of a search whose matches are
+ * counted but not stored beyond a certain limit.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class MatchSet {
+
+   public static final class Builder {
+      private int[] data;
+      private int size;
+
+      public Builder() {
+         this(16);
+      }
+
+      public Builder(final int expectedSize) {
+         data = new int[Math.max(1, expectedSize) * 2];
+      }
+
+      /**
+       * Adds a match. Matches must be added in ascending, non-overlapping order.
+       */
+      public Builder add(final int offset, final int length) {
+         ensureCapacity(size + 1);
+         final int i = size * 2;
+         data[i] = offset;
+         data[i + 1] = length;
+         size++;
+         return this;
+      }
+
+      /**
+       * Adds the matches in the index range [<code>fromIndex</code>, <code>toIndex</code>) of the given set, moving their offsets
+       * by <code>shift</code> characters.
+       */
+      public Builder addAll(final MatchSet matches, final int fromIndex, final int toIndex, final int shift) {
+         final int count = toIndex - fromIndex;
+         if (count <= 0)
+            return this;
+         ensureCapacity(size + count);
+         System.arraycopy(matches.data, fromIndex * 2, data, size * 2, count * 2);
+         if (shift != 0) {
+            for (int i = size * 2, end = (size + count) * 2; i < end; i += 2) {
+               data[i] += shift;
+            }
+         }
+         size += count;
+         return this;
+      }
+
+      public MatchSet build() {
+         if (size == 0)
+            return EMPTY;
+         return new MatchSet(data.length == size * 2 ? data : Arrays.copyOf(data, size * 2), size, size, true);
+      }
+
+      private void ensureCapacity(final int minSize) {
+         if (minSize * 2 > data.length) {
+            data = Arrays.copyOf(data, Math.max(minSize * 2, data.length + (data.length >> 1)));
+         }
+      }
+
+      public int size() {
+         return size;
+      }
+   }
+
+   public static final MatchSet EMPTY = new MatchSet(new int[0], 0, 0, true);
+
+   /**
+    * match offsets at even, match lengths at odd indexes
+    */
+   private final int[] data;
+   private final int size;
+   private final int totalCount;
+   private final boolean isCountComplete;
+
+   private @Nullable List<Position> positions;
+
+   private MatchSet(final int[] data, final int size, final int totalCount, final boolean isCountComplete) {
+      this.data = data;
+      this.size = size;
+      this.totalCount = totalCount;
+      this.isCountComplete = isCountComplete;
+   }
+
+   /**
+    * @return a read-only list view of the matches that creates {@link Position} objects on access
+    */
+   public List<Position> asPositions() {
+      var positions = this.positions;
+      if (positions == null) {
+         final class PositionsView extends AbstractList<Position> implements RandomAccess {
+            @Override
+            public Position get(final int index) {
+               return getPosition(index);
+            }
+
+            @Override
+            public int size() {
+               return size;
+            }
+         }
+         positions = this.positions = new PositionsView();
+      }
+      return positions;
+   }
+
+   /**
+    * @return offset after the last character of the match at the given index
+    */
+   public int getEnd(final int index) {
+      return getOffset(index) + getLength(index);
+   }
+
+   public int getLength(final int index) {
+      if (index < 0 || index >= size)
+         throw new IndexOutOfBoundsException(index);
+      return data[index * 2 + 1];
+   }
+
+   public int getOffset(final int index) {
+      if (index < 0 || index >= size)
+         throw new IndexOutOfBoundsException(index);
+      return data[index * 2];
+   }
+
+   public Position getPosition(final int index) {
+      return new Position(getOffset(index), getLength(index));
+   }
+
+   /**
+    * @return the number of matches found in the searched text, which is larger than {@link #size()} if the set is truncated.
+    *         If the count is not {@link #isCountComplete() complete} yet, this is the number of matches found so far.
+    */
+   public int getTotalCount() {
+      return totalCount;
+   }
+
+   /**
+    * @return index of the first match ending at or after the given offset, or {@link #size()} if none
+    */
+   public int indexOfFirstEndingAtOrAfter(final int offset) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+         final int mid = low + high >>> 1;
+         if (data[mid * 2] + data[mid * 2 + 1] < offset) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * @return index of the first match at or after <code>fromIndex</code> starting at or after the given offset, or
+    *         {@link #size()} if none
+    */
+   public int indexOfFirstStartingAtOrAfter(final int fromIndex, final int offset) {
+      int low = Math.max(0, fromIndex);
+      int high = size;
+      while (low < high) {
+         final int mid = low + high >>> 1;
+         if (data[mid * 2] < offset) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * @return false while the matches beyond the truncated ones are still being counted
+    */
+   public boolean isCountComplete() {
+      return isCountComplete;
+   }
+
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * @return true if the set does not contain all matches of the searched text
+    */
+   public boolean isTruncated() {
+      return size < totalCount || !isCountComplete;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public String toString() {
+      final var sb = new StringBuilder("MatchSet[size=").append(size);
+      if (isTruncated()) {
+         sb.append(", totalCount=").append(totalCount).append(isCountComplete ? "" : "+");
+      }
+      for (int i = 0; i < Math.min(size, 10); i++) {
+         sb.append(i == 0 ? ": " : ", ").append(data[i * 2]).append('+').append(data[i * 2 + 1]);
+      }
+      return sb.append(size > 10 ? ", ...]" : "]").toString();
+   }
+
+   /**
+    * @return a match set with the same matches but the given total match count
+    */
+   public MatchSet withTotalCount(final int totalCount, final boolean isCountComplete) {
+      if (totalCount < size)
+         throw new IllegalArgumentException("[totalCount] must not be smaller than the number of matches");
+      return new MatchSet(data, size, totalCount, isCountComplete);
+   }
+}
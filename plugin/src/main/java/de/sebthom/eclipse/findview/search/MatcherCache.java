@@ -0,0 +1,76 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Bounded LRU cache of compiled {@link TextMatcher}s keyed by search string and match options.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class MatcherCache {
+
+   public static final int CAPACITY = 64;
+
+   private static final Map<SearchOptions, TextMatcher> CACHE = new LinkedHashMap<>(CAPACITY * 4 / 3 + 1, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<SearchOptions, TextMatcher> eldest) {
+         return size() > CAPACITY;
+      }
+   };
+
+   public static void clear() {
+      synchronized (CACHE) {
+         CACHE.clear();
+      }
+   }
+
+   /**
+    * @return the cached matcher for the given options, compiling it on a cache miss
+    * @throws java.util.regex.PatternSyntaxException if {@link SearchOptions#matchRegEx()} is set and the search string is not a
+    *            valid regular expression
+    */
+   public static TextMatcher get(final SearchOptions options) {
+      synchronized (CACHE) {
+         final var matcher = CACHE.get(options);
+         if (matcher != null)
+            return matcher;
+      }
+
+      // compile outside of the lock so that a slow compilation does not block other threads
+      final var matcher = TextMatcher.compile(options);
+      synchronized (CACHE) {
+         CACHE.put(options, matcher);
+      }
+      return matcher;
+   }
+
+   /**
+    * Compiles and caches the matcher for the given options unless already cached. Invalid regular expressions are ignored.
+    */
+   public static void warmUp(final SearchOptions options) {
+      synchronized (CACHE) {
+         if (CACHE.containsKey(options))
+            return;
+      }
+      try {
+         get(options);
+      } catch (final PatternSyntaxException ex) {
+         // ignore invalid patterns
+      }
+   }
+
+   private MatcherCache() {
+   }
+}
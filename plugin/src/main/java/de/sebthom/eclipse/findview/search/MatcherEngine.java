@@ -0,0 +1,47 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Service provider interface of regular expression engines.
+ * <p>
+ * Engines are registered with {@link MatcherEngines}, either programmatically or by contributing to the
+ * <code>de.sebthom.eclipse.findview.matcherEngines</code> extension point, and are selected per search via
+ * {@link SearchOptions#matcherEngine()}. Plain text searches are always performed by the {@link LiteralTextMatcher}.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public interface MatcherEngine {
+
+   /**
+    * Compiles the given regular expression, which has already been validated by {@link Pattern#compile(String, int)}.
+    * <p>
+    * The returned matcher must find the same matches as the given pattern and must return it from
+    * {@link TextMatcher#getPattern()}, which is used to resolve the group references of replacements.
+    *
+    * @return <code>null</code> if the pattern uses constructs or flags not supported by this engine, in which case the search
+    *         falls back to {@link java.util.regex}
+    */
+   @Nullable
+   TextMatcher compile(Pattern pattern);
+
+   /**
+    * @return the unique id of the engine, stored in the preferences
+    */
+   String getId();
+
+   /**
+    * @return the human readable name of the engine
+    */
+   String getName();
+}
@@ -0,0 +1,104 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Registry of the available {@link MatcherEngine}s.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class MatcherEngines {
+
+   /**
+    * The backtracking engine of {@link java.util.regex}, which supports the full regular expression syntax but may take
+    * exponential time.
+    */
+   public static final MatcherEngine JDK = new MatcherEngine() {
+      @Override
+      public TextMatcher compile(final Pattern pattern) {
+         return new RegExTextMatcher(pattern);
+      }
+
+      @Override
+      public String getId() {
+         return "jdk";
+      }
+
+      @Override
+      public String getName() {
+         return "java.util.regex (backtracking)";
+      }
+   };
+
+   /**
+    * The automaton based engine, which runs in linear time but supports only a subset of the regular expression syntax.
+    */
+   public static final MatcherEngine LINEAR = new MatcherEngine() {
+      @Override
+      public @Nullable TextMatcher compile(final Pattern pattern) {
+         return LinearRegExTextMatcher.compile(pattern);
+      }
+
+      @Override
+      public String getId() {
+         return "linear";
+      }
+
+      @Override
+      public String getName() {
+         return "Linear-time automaton (falls back to java.util.regex)";
+      }
+   };
+
+   private static final Map<String, MatcherEngine> ENGINES = new LinkedHashMap<>();
+
+   static {
+      register(JDK);
+      register(LINEAR);
+   }
+
+   /**
+    * @return the engine with the given id or <code>null</code> if no such engine is registered
+    */
+   public static @Nullable MatcherEngine get(final String id) {
+      synchronized (ENGINES) {
+         return ENGINES.get(id);
+      }
+   }
+
+   /**
+    * @return all registered engines in the order of registration
+    */
+   public static List<MatcherEngine> getAll() {
+      synchronized (ENGINES) {
+         return List.copyOf(ENGINES.values());
+      }
+   }
+
+   /**
+    * Registers the given engine, replacing any engine registered under the same id.
+    */
+   public static void register(final MatcherEngine engine) {
+      synchronized (ENGINES) {
+         ENGINES.put(engine.getId(), engine);
+      }
+      // matchers compiled by a replaced engine must not be used anymore
+      MatcherCache.clear();
+   }
+
+   private MatcherEngines() {
+   }
+}
@@ -0,0 +1,267 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts the literal strings that every match of a regular expression contains.
+ * <p>
+ * The extraction is conservative: only character sequences outside of groups and character classes are considered, and no
+ * literals are extracted from expressions with top-level alternations or comments mode. Escape sequences denoting anything
+ * but the escaped character itself end a literal.
+ *
+ * @author Sebastian Thomschke
+ */
+final class RegExLiterals {
+
+   /**
+    * @return true if any embedded flag expression of the given regular expression enables or disables comments mode, in
+    *         which whitespace and comments are not taken literally
+    */
+   private static boolean hasCommentsFlag(final String regEx) {
+      for (int i = regEx.indexOf("(?"); i >= 0; i = regEx.indexOf("(?", i + 2)) {
+         for (int j = i + 2; j < regEx.length(); j++) {
+            final char ch = regEx.charAt(j);
+            if (ch == 'x')
+               return true;
+            if (!Character.isLetter(ch) && ch != '-') {
+               break;
+            }
+         }
+      }
+      return false;
+   }
+
+   private static boolean hasTopLevelAlternation(final String regEx) {
+      int depth = 0;
+      for (int i = 0, l = regEx.length(); i < l; i++) {
+         switch (regEx.charAt(i)) {
+            case '\\' -> i = skipEscape(regEx, i) - 1;
+            case '[' -> i = skipCharClass(regEx, i) - 1;
+            case '(' -> depth++;
+            case ')' -> depth--;
+            case '|' -> {
+               if (depth == 0)
+                  return true;
+            }
+            default -> {
+               // nothing to do
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return the literal strings every match of the given regular expression contains, empty if none could be determined
+    */
+   static List<String> of(final String regEx) {
+      final var literals = new ArrayList<String>();
+      if (hasCommentsFlag(regEx) || hasTopLevelAlternation(regEx))
+         return literals;
+
+      final var literal = new StringBuilder();
+      final int len = regEx.length();
+      int i = 0;
+      boolean isLiteralAtom = false; // true if the previous atom was appended to literal
+      while (i < len) {
+         final char ch = regEx.charAt(i);
+         switch (ch) {
+            case '*', '?', '+', '{' -> {
+               // a quantifier applies to the previous atom only, which is optional unless at least one occurrence is required
+               final boolean isOptional = ch == '*' || ch == '?' || ch == '{' && i + 1 < len && regEx.charAt(i + 1) == '0';
+               if (isLiteralAtom && isOptional) {
+                  literal.setLength(literal.length() - 1);
+               }
+               flush(literal, literals);
+               i = ch == '{' ? regEx.indexOf('}', i) + 1 : i + 1;
+               if (i == 0) {
+                  i = len;
+               }
+               // lazy or possessive quantifier
+               if (i < len && (regEx.charAt(i) == '?' || regEx.charAt(i) == '+')) {
+                  i++;
+               }
+               isLiteralAtom = false;
+               continue;
+            }
+            case '\\' -> {
+               final char escaped = i + 1 < len ? regEx.charAt(i + 1) : '\\';
+               if (Character.isLetterOrDigit(escaped)) {
+                  // predefined character class, boundary matcher, back reference or escaped code point
+                  flush(literal, literals);
+                  isLiteralAtom = false;
+               } else {
+                  literal.append(escaped);
+                  isLiteralAtom = true;
+               }
+               i = skipEscape(regEx, i);
+               continue;
+            }
+            case '[' -> {
+               flush(literal, literals);
+               i = skipCharClass(regEx, i);
+               isLiteralAtom = false;
+               continue;
+            }
+            case '(' -> {
+               flush(literal, literals);
+               i = skipGroup(regEx, i);
+               isLiteralAtom = false;
+               continue;
+            }
+            case '.', '^', '$' -> {
+               flush(literal, literals);
+               isLiteralAtom = false;
+            }
+            default -> {
+               literal.append(ch);
+               isLiteralAtom = true;
+            }
+         }
+         i++;
+      }
+      flush(literal, literals);
+      return literals;
+   }
+
+   private static void flush(final StringBuilder literal, final List<String> literals) {
+      if (!literal.isEmpty()) {
+         literals.add(literal.toString());
+         literal.setLength(0);
+      }
+   }
+
+   /**
+    * @param start offset of the opening bracket
+    * @return offset after the closing bracket of the character class
+    */
+   private static int skipCharClass(final String regEx, final int start) {
+      int depth = 0;
+      int i = start;
+      final int len = regEx.length();
+      while (i < len) {
+         final char ch = regEx.charAt(i);
+         if (ch == '\\') {
+            i = skipEscape(regEx, i);
+            continue;
+         }
+         if (ch == '[') {
+            depth++;
+            // a closing bracket directly after the opening bracket (or its negation) is a literal
+            if (i + 1 < len && regEx.charAt(i + 1) == '^') {
+               i++;
+            }
+            if (i + 1 < len && regEx.charAt(i + 1) == ']') {
+               i++;
+            }
+         } else if (ch == ']') {
+            depth--;
+            if (depth == 0)
+               return i + 1;
+         }
+         i++;
+      }
+      return len;
+   }
+
+   /**
+    * @param start offset of the backslash
+    * @return offset after the escape sequence including its operands
+    */
+   private static int skipEscape(final String regEx, final int start) {
+      final int len = regEx.length();
+      int i = start + 2;
+      if (i > len)
+         return len;
+
+      switch (regEx.charAt(start + 1)) {
+         case 'Q' -> {
+            final int end = regEx.indexOf("\\E", i);
+            return end < 0 ? len : end + 2;
+         }
+         case 'x' -> {
+            if (i < len && regEx.charAt(i) == '{') {
+               final int end = regEx.indexOf('}', i);
+               return end < 0 ? len : end + 1;
+            }
+            return Math.min(len, i + 2);
+         }
+         case 'u' -> {
+            return Math.min(len, i + 4);
+         }
+         case '0' -> {
+            while (i < len && i < start + 5 && regEx.charAt(i) >= '0' && regEx.charAt(i) <= '7') {
+               i++;
+            }
+            return i;
+         }
+         case 'c' -> {
+            return Math.min(len, i + 1);
+         }
+         case 'p', 'P', 'N' -> {
+            if (i < len && regEx.charAt(i) == '{') {
+               final int end = regEx.indexOf('}', i);
+               return end < 0 ? len : end + 1;
+            }
+            return Math.min(len, i + 1);
+         }
+         case 'k' -> {
+            final int end = regEx.indexOf('>', i);
+            return end < 0 ? len : end + 1;
+         }
+         case '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+            while (i < len && Character.isDigit(regEx.charAt(i))) {
+               i++;
+            }
+            return i;
+         }
+         default -> {
+            return i;
+         }
+      }
+   }
+
+   /**
+    * @param start offset of the opening parenthesis
+    * @return offset after the closing parenthesis of the group
+    */
+   private static int skipGroup(final String regEx, final int start) {
+      int depth = 0;
+      int i = start;
+      final int len = regEx.length();
+      while (i < len) {
+         final char ch = regEx.charAt(i);
+         switch (ch) {
+            case '\\' -> {
+               i = skipEscape(regEx, i);
+               continue;
+            }
+            case '[' -> {
+               i = skipCharClass(regEx, i);
+               continue;
+            }
+            case '(' -> depth++;
+            case ')' -> {
+               depth--;
+               if (depth == 0)
+                  return i + 1;
+            }
+            default -> {
+               // nothing to do
+            }
+         }
+         i++;
+      }
+      return len;
+   }
+
+   private RegExLiterals() {
+   }
+}
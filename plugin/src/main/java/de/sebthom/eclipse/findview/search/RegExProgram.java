@@ -0,0 +1,746 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Non-deterministic finite automaton compiled from a regular expression, executed by {@link LinearRegExTextMatcher}.
+ * <p>
+ * Supports the subset of the {@link java.util.regex.Pattern} syntax that can be matched without backtracking: literals and
+ * escaped characters, <code>\Q...\E</code> quotes, <code>.</code>, character classes with ranges and negation, the
+ * predefined classes <code>\d \D \s \S \w \W</code>, the boundary matchers <code>^ $ \b \B \A \z \Z</code>, capturing,
+ * named and non-capturing groups, alternations, and greedy and lazy quantifiers. Case insensitive matching is supported for
+ * US-ASCII characters like {@link java.util.regex.Pattern#CASE_INSENSITIVE} does. Back references, look-around, atomic
+ * groups, possessive quantifiers, embedded flags, Unicode properties, class unions and intersections, and supplementary
+ * characters in the regular expression are not supported. Like {@link java.util.regex.Pattern}, <code>.</code> and character
+ * classes match supplementary characters of the text as a whole.
+ *
+ * @author Sebastian Thomschke
+ */
+final class RegExProgram {
+
+   /**
+    * Immutable set of BMP characters that either contains all or no supplementary characters.
+    */
+   static final class CharSet {
+
+      private static final CharSet DIGIT = new CharSet().addRange('0', '9');
+      private static final CharSet SPACE = new CharSet().add(' ').addRange('\t', '\r');
+      private static final CharSet WORD = new CharSet().addRange('a', 'z').addRange('A', 'Z').addRange('0', '9').add('_');
+      private static final CharSet NOT_DIGIT = new CharSet().addAll(DIGIT).negate();
+      private static final CharSet NOT_SPACE = new CharSet().addAll(SPACE).negate();
+      private static final CharSet NOT_WORD = new CharSet().addAll(WORD).negate();
+
+      /**
+       * matched by <code>.</code>, i.e. all characters but line terminators
+       */
+      private static final CharSet DOT = new CharSet().add('\n').add('\r').add('\u0085').add('\u2028').add('\u2029').negate();
+
+      private final long[] bits = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+
+      /**
+       * true if the set contains all supplementary characters, i.e. if it was negated
+       */
+      private boolean isSupplementaryContained;
+
+      private CharSet add(final char ch) {
+         bits[ch >>> 6] |= 1L << ch;
+         return this;
+      }
+
+      private CharSet addAll(final CharSet other) {
+         for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other.bits[i];
+         }
+         isSupplementaryContained |= other.isSupplementaryContained;
+         return this;
+      }
+
+      private CharSet addRange(final char from, final char to) {
+         for (int ch = from; ch <= to; ch++) {
+            add((char) ch);
+         }
+         return this;
+      }
+
+      boolean contains(final char ch) {
+         return (bits[ch >>> 6] & 1L << ch) != 0;
+      }
+
+      boolean containsSupplementary() {
+         return isSupplementaryContained;
+      }
+
+      /**
+       * @return true if the set contains supplementary characters or surrogates
+       */
+      private boolean containsSurrogates() {
+         if (isSupplementaryContained)
+            return true;
+         for (int i = Character.MIN_SURROGATE >>> 6; i <= Character.MAX_SURROGATE >>> 6; i++) {
+            if (bits[i] != 0)
+               return true;
+         }
+         return false;
+      }
+
+      /**
+       * Adds the other case of all contained US-ASCII letters.
+       */
+      private CharSet foldAsciiCase() {
+         for (char ch = 'a'; ch <= 'z'; ch++) {
+            final char upper = (char) (ch - ('a' - 'A'));
+            if (contains(ch) || contains(upper)) {
+               add(ch);
+               add(upper);
+            }
+         }
+         return this;
+      }
+
+      private CharSet negate() {
+         for (int i = 0; i < bits.length; i++) {
+            bits[i] = ~bits[i];
+         }
+         isSupplementaryContained = !isSupplementaryContained;
+         return this;
+      }
+   }
+
+   /**
+    * Thrown if the regular expression uses a construct not supported by this engine.
+    */
+   static final class UnsupportedSyntaxException extends Exception {
+      private static final long serialVersionUID = 1L;
+
+      UnsupportedSyntaxException(final String construct) {
+         super(construct, null, false, false);
+      }
+   }
+
+   private sealed interface Node permits Alternation, Assertion, CharMatch, ClassMatch, Repetition, Sequence {
+   }
+
+   private record Alternation(List<Node> alternatives) implements Node {
+   }
+
+   private record Assertion(int kind) implements Node {
+   }
+
+   /**
+    * @param alternative the other case of the character if matched case insensitively, else the character itself
+    */
+   private record CharMatch(char ch, char alternative) implements Node {
+   }
+
+   private record ClassMatch(CharSet chars) implements Node {
+   }
+
+   /**
+    * @param max maximum number of repetitions or <code>-1</code> if unbounded
+    */
+   private record Repetition(Node node, int min, int max, boolean isGreedy) implements Node {
+   }
+
+   private record Sequence(List<Node> items) implements Node {
+   }
+
+   /** consumes a character equal to <code>arg1</code> or <code>arg2</code> */
+   static final int OP_CHAR = 0;
+   /** consumes a character contained in <code>classes[arg1]</code>, a supplementary character as surrogate pair */
+   static final int OP_CLASS = 1;
+   /** continues at <code>arg1</code>, with lower priority at <code>arg2</code> */
+   static final int OP_SPLIT = 2;
+   /** continues at <code>arg1</code> */
+   static final int OP_JUMP = 3;
+   /** continues with the next instruction if the assertion <code>arg1</code> holds at the current position */
+   static final int OP_ASSERT = 4;
+   static final int OP_MATCH = 5;
+
+   /** <code>^</code> and <code>\A</code> */
+   static final int ASSERT_BEGIN = 0;
+   /** <code>$</code> and <code>\Z</code> */
+   static final int ASSERT_END = 1;
+   /** <code>\z</code> */
+   static final int ASSERT_END_OF_INPUT = 2;
+   /** <code>\b</code> */
+   static final int ASSERT_WORD_BOUNDARY = 3;
+   /** <code>\B</code> */
+   static final int ASSERT_NOT_WORD_BOUNDARY = 4;
+
+   /**
+    * Maximum number of instructions, bounds the memory and the per-character cost of large counted repetitions.
+    */
+   static final int MAX_SIZE = 10_000;
+
+   /**
+    * @throws UnsupportedSyntaxException if the regular expression uses a construct not supported by this engine
+    */
+   static RegExProgram compile(final String regEx, final boolean isCaseInsensitive) throws UnsupportedSyntaxException {
+      final var parser = new RegExProgram(regEx, isCaseInsensitive);
+      final Node root = parser.parseAlternation();
+      if (parser.pos < regEx.length())
+         throw new UnsupportedSyntaxException("unbalanced parenthesis");
+      parser.emit(root);
+      parser.emit(OP_MATCH, 0, 0);
+      parser.ops = Arrays.copyOf(parser.ops, parser.size);
+      parser.args1 = Arrays.copyOf(parser.args1, parser.size);
+      parser.args2 = Arrays.copyOf(parser.args2, parser.size);
+      parser.firstChars = parser.computeFirstChars();
+      for (final var chars : parser.classes) {
+         if (chars != CharSet.DOT && chars.containsSurrogates()) {
+            parser.isStartAtLowSurrogateSkipped = true;
+         }
+      }
+      return parser;
+   }
+
+   // parser state
+   private final String regEx;
+   private final boolean isCaseInsensitive;
+   private int pos;
+
+   // program
+   int[] ops = new int[16];
+   int[] args1 = new int[16];
+   int[] args2 = new int[16];
+   int size;
+   CharSet[] classes = new CharSet[0];
+   private final Map<CharSet, Integer> classIndexes = new IdentityHashMap<>();
+
+   /**
+    * the characters any match must start with or <code>null</code> if a match may start with an assertion that is followed
+    * by no character, e.g. an empty match
+    */
+   @Nullable
+   CharSet firstChars;
+
+   /**
+    * true if a character class other than <code>.</code> may match surrogates, in which case {@link java.util.regex.Pattern}
+    * does not start matches at the low surrogate of a surrogate pair
+    */
+   boolean isStartAtLowSurrogateSkipped;
+
+   private RegExProgram(final String regEx, final boolean isCaseInsensitive) {
+      this.regEx = regEx;
+      this.isCaseInsensitive = isCaseInsensitive;
+   }
+
+   private @Nullable CharSet computeFirstChars() {
+      final var result = new CharSet();
+      final var visited = new boolean[size];
+      final var stack = new int[size * 2 + 1];
+      int top = 0;
+      stack[top++] = 0;
+      while (top > 0) {
+         final int pc = stack[--top];
+         if (visited[pc]) {
+            continue;
+         }
+         visited[pc] = true;
+         switch (ops[pc]) {
+            case OP_CHAR -> result.add((char) args1[pc]).add((char) args2[pc]);
+            case OP_CLASS -> {
+               final var chars = classes[args1[pc]];
+               result.addAll(chars);
+               if (chars.isSupplementaryContained) {
+                  result.addRange(Character.MIN_HIGH_SURROGATE, Character.MAX_HIGH_SURROGATE);
+               }
+            }
+            case OP_SPLIT -> {
+               stack[top++] = args2[pc];
+               stack[top++] = args1[pc];
+            }
+            case OP_JUMP -> stack[top++] = args1[pc];
+            // assertions are assumed to hold
+            case OP_ASSERT -> stack[top++] = pc + 1;
+            default -> {
+               return null;
+            }
+         }
+      }
+      return result;
+   }
+
+   private void emit(final Node node) throws UnsupportedSyntaxException {
+      if (node instanceof final CharMatch charMatch) {
+         emit(OP_CHAR, charMatch.ch(), charMatch.alternative());
+      } else if (node instanceof final ClassMatch classMatch) {
+         Integer index = classIndexes.get(classMatch.chars());
+         if (index == null) {
+            index = classes.length;
+            classes = Arrays.copyOf(classes, index + 1);
+            classes[index] = classMatch.chars();
+            classIndexes.put(classMatch.chars(), index);
+         }
+         emit(OP_CLASS, index, 0);
+      } else if (node instanceof final Assertion assertion) {
+         emit(OP_ASSERT, assertion.kind(), 0);
+      } else if (node instanceof final Sequence sequence) {
+         for (final var item : sequence.items()) {
+            emit(item);
+         }
+      } else if (node instanceof final Alternation alternation) {
+         // split L1, next1; L1: alt1; jump exit; next1: split L2, next2; ... altN; exit:
+         final var alternatives = alternation.alternatives();
+         final var jumpsToExit = new int[alternatives.size() - 1];
+         for (int i = 0; i < jumpsToExit.length; i++) {
+            final int split = emit(OP_SPLIT, size + 1, 0);
+            emit(alternatives.get(i));
+            jumpsToExit[i] = emit(OP_JUMP, 0, 0);
+            args2[split] = size;
+         }
+         emit(alternatives.get(jumpsToExit.length));
+         for (final int jump : jumpsToExit) {
+            args1[jump] = size;
+         }
+      } else if (node instanceof final Repetition repetition) {
+         emitRepetition(repetition);
+      }
+   }
+
+   /**
+    * @return the address of the emitted instruction
+    */
+   private int emit(final int op, final int arg1, final int arg2) throws UnsupportedSyntaxException {
+      if (size == MAX_SIZE)
+         throw new UnsupportedSyntaxException("program too large");
+      if (size == ops.length) {
+         final int capacity = Math.min(MAX_SIZE, size * 2);
+         ops = Arrays.copyOf(ops, capacity);
+         args1 = Arrays.copyOf(args1, capacity);
+         args2 = Arrays.copyOf(args2, capacity);
+      }
+      ops[size] = op;
+      args1[size] = arg1;
+      args2[size] = arg2;
+      return size++;
+   }
+
+   private void emitRepetition(final Repetition repetition) throws UnsupportedSyntaxException {
+      final var node = repetition.node();
+      final int min = repetition.min();
+      final int max = repetition.max();
+
+      if (max == -1) {
+         if (min == 0) {
+            // L: split body, exit; body; jump L; exit:
+            final int split = emit(OP_SPLIT, 0, 0);
+            emit(node);
+            emit(OP_JUMP, split, 0);
+            setSplitTargets(split, split + 1, size, repetition.isGreedy());
+         } else {
+            // the last mandatory occurrence loops back to itself: L: body; split L, exit; exit:
+            for (int i = 0; i < min - 1; i++) {
+               emit(node);
+            }
+            final int loopStart = size;
+            emit(node);
+            final int split = emit(OP_SPLIT, 0, 0);
+            setSplitTargets(split, loopStart, size, repetition.isGreedy());
+         }
+         return;
+      }
+
+      for (int i = 0; i < min; i++) {
+         emit(node);
+      }
+      // nested optional occurrences: split b1, exit; b1: body; split b2, exit; b2: body; ... exit:
+      final var splits = new int[max - min];
+      for (int i = 0; i < splits.length; i++) {
+         splits[i] = emit(OP_SPLIT, 0, 0);
+         emit(node);
+      }
+      for (final int split : splits) {
+         setSplitTargets(split, split + 1, size, repetition.isGreedy());
+      }
+   }
+
+   /**
+    * @return true if the given expression may match the empty string
+    */
+   private static boolean isNullable(final Node node) {
+      if (node instanceof final Sequence sequence)
+         return sequence.items().stream().allMatch(RegExProgram::isNullable);
+      if (node instanceof final Alternation alternation)
+         return alternation.alternatives().stream().anyMatch(RegExProgram::isNullable);
+      if (node instanceof final Repetition repetition)
+         return repetition.min() == 0 || isNullable(repetition.node());
+      return node instanceof Assertion;
+   }
+
+   private Node literal(final char ch) throws UnsupportedSyntaxException {
+      if (Character.isSurrogate(ch))
+         throw new UnsupportedSyntaxException("supplementary character");
+      if (isCaseInsensitive) {
+         if (ch >= 'a' && ch <= 'z')
+            return new CharMatch(ch, (char) (ch - ('a' - 'A')));
+         if (ch >= 'A' && ch <= 'Z')
+            return new CharMatch(ch, (char) (ch + ('a' - 'A')));
+      }
+      return new CharMatch(ch, ch);
+   }
+
+   private Node parseAlternation() throws UnsupportedSyntaxException {
+      final var alternatives = new ArrayList<Node>();
+      alternatives.add(parseSequence());
+      while (pos < regEx.length() && regEx.charAt(pos) == '|') {
+         pos++;
+         alternatives.add(parseSequence());
+      }
+      return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+   }
+
+   private Node parseAtom() throws UnsupportedSyntaxException {
+      final char ch = regEx.charAt(pos++);
+      switch (ch) {
+         case '(' -> {
+            if (regEx.startsWith("?:", pos)) {
+               pos += 2;
+            } else if (regEx.startsWith("?<", pos) && pos + 2 < regEx.length() && Character.isLetter(regEx.charAt(pos + 2))) {
+               // named capturing group, the group itself is not needed to determine the match boundaries
+               pos = regEx.indexOf('>', pos) + 1;
+            } else if (regEx.startsWith("?", pos))
+               throw new UnsupportedSyntaxException("special group");
+            final var node = parseAlternation();
+            if (pos >= regEx.length() || regEx.charAt(pos) != ')')
+               throw new UnsupportedSyntaxException("unbalanced parenthesis");
+            pos++;
+            return node;
+         }
+         case '[' -> {
+            return new ClassMatch(parseClass());
+         }
+         case '.' -> {
+            return new ClassMatch(CharSet.DOT);
+         }
+         case '^' -> {
+            return new Assertion(ASSERT_BEGIN);
+         }
+         case '$' -> {
+            return new Assertion(ASSERT_END);
+         }
+         case '\\' -> {
+            return parseEscape();
+         }
+         case '*', '+', '?', '{' -> throw new UnsupportedSyntaxException("dangling quantifier");
+         default -> {
+            return literal(ch);
+         }
+      }
+   }
+
+   /**
+    * Parses a character class after the opening bracket.
+    */
+   private CharSet parseClass() throws UnsupportedSyntaxException {
+      final int len = regEx.length();
+      final var chars = new CharSet();
+      final boolean isNegated = pos < len && regEx.charAt(pos) == '^';
+      if (isNegated) {
+         pos++;
+      }
+
+      boolean isFirst = true;
+      while (true) {
+         if (pos >= len)
+            throw new UnsupportedSyntaxException("unclosed character class");
+         final char ch = regEx.charAt(pos);
+         if (ch == ']' && !isFirst) {
+            pos++;
+            break;
+         }
+         if (ch == '[' || ch == '&' && regEx.startsWith("&&", pos))
+            throw new UnsupportedSyntaxException("character class union or intersection");
+         isFirst = false;
+
+         final int from = parseClassChar(chars);
+         if (from < 0) {
+            // predefined character class
+            continue;
+         }
+         if (pos + 1 < len && regEx.charAt(pos) == '-' && regEx.charAt(pos + 1) != ']') {
+            pos++;
+            final int to = parseClassChar(null);
+            if (to < from)
+               throw new UnsupportedSyntaxException("illegal character range");
+            chars.addRange((char) from, (char) to);
+         } else {
+            chars.add((char) from);
+         }
+      }
+
+      if (isCaseInsensitive) {
+         chars.foldAsciiCase();
+      }
+      return isNegated ? chars.negate() : chars;
+   }
+
+   /**
+    * Parses a character of a character class, predefined character classes are added to the given set.
+    *
+    * @param chars the set to add predefined character classes to, <code>null</code> if predefined classes are not allowed
+    * @return the character or <code>-1</code> if a predefined character class was parsed
+    */
+   private int parseClassChar(final @Nullable CharSet chars) throws UnsupportedSyntaxException {
+      final char ch = regEx.charAt(pos++);
+      if (ch == '[')
+         throw new UnsupportedSyntaxException("character class union");
+      if (ch != '\\') {
+         if (Character.isSurrogate(ch))
+            throw new UnsupportedSyntaxException("supplementary character");
+         return ch;
+      }
+
+      if (pos >= regEx.length())
+         throw new UnsupportedSyntaxException("trailing backslash");
+      final char escaped = regEx.charAt(pos++);
+      final CharSet predefined = switch (escaped) {
+         case 'd' -> CharSet.DIGIT;
+         case 'D' -> CharSet.NOT_DIGIT;
+         case 's' -> CharSet.SPACE;
+         case 'S' -> CharSet.NOT_SPACE;
+         case 'w' -> CharSet.WORD;
+         case 'W' -> CharSet.NOT_WORD;
+         default -> null;
+      };
+      if (predefined == null)
+         return parseEscapedChar(escaped);
+      if (chars == null)
+         throw new UnsupportedSyntaxException("illegal character range");
+      chars.addAll(predefined);
+      return -1;
+   }
+
+   /**
+    * Parses an escape sequence after the backslash.
+    */
+   private Node parseEscape() throws UnsupportedSyntaxException {
+      if (pos >= regEx.length())
+         throw new UnsupportedSyntaxException("trailing backslash");
+      final char escaped = regEx.charAt(pos++);
+      switch (escaped) {
+         case 'd' -> {
+            return new ClassMatch(CharSet.DIGIT);
+         }
+         case 'D' -> {
+            return new ClassMatch(CharSet.NOT_DIGIT);
+         }
+         case 's' -> {
+            return new ClassMatch(CharSet.SPACE);
+         }
+         case 'S' -> {
+            return new ClassMatch(CharSet.NOT_SPACE);
+         }
+         case 'w' -> {
+            return new ClassMatch(CharSet.WORD);
+         }
+         case 'W' -> {
+            return new ClassMatch(CharSet.NOT_WORD);
+         }
+         case 'b', 'B' -> {
+            if (pos < regEx.length() && regEx.charAt(pos) == '{')
+               throw new UnsupportedSyntaxException("grapheme cluster boundary");
+            return new Assertion(escaped == 'b' ? ASSERT_WORD_BOUNDARY : ASSERT_NOT_WORD_BOUNDARY);
+         }
+         case 'A' -> {
+            return new Assertion(ASSERT_BEGIN);
+         }
+         case 'Z' -> {
+            return new Assertion(ASSERT_END);
+         }
+         case 'z' -> {
+            return new Assertion(ASSERT_END_OF_INPUT);
+         }
+         default -> {
+            return literal(parseEscapedChar(escaped));
+         }
+      }
+   }
+
+   /**
+    * Parses the remainder of an escape sequence denoting a single character.
+    *
+    * @param escaped the character following the backslash
+    */
+   private char parseEscapedChar(final char escaped) throws UnsupportedSyntaxException {
+      final char ch = switch (escaped) {
+         case 't' -> '\t';
+         case 'n' -> '\n';
+         case 'r' -> '\r';
+         case 'f' -> '\f';
+         case 'a' -> '\u0007';
+         case 'e' -> '\u001B';
+         case '0' -> {
+            // \0n, \0nn or \0mnn with m <= 3
+            int value = 0;
+            int digits = 0;
+            while (digits < 3 && pos < regEx.length() && regEx.charAt(pos) >= '0' && regEx.charAt(pos) <= '7') {
+               final int newValue = value * 8 + regEx.charAt(pos) - '0';
+               if (newValue > 0377) {
+                  break;
+               }
+               value = newValue;
+               digits++;
+               pos++;
+            }
+            if (digits == 0)
+               throw new UnsupportedSyntaxException("illegal octal escape sequence");
+            yield (char) value;
+         }
+         case 'x' -> {
+            if (pos < regEx.length() && regEx.charAt(pos) == '{') {
+               final int end = regEx.indexOf('}', pos);
+               if (end < 0)
+                  throw new UnsupportedSyntaxException("unclosed hexadecimal escape sequence");
+               final int value = parseHex(pos + 1, end);
+               pos = end + 1;
+               if (value > Character.MAX_VALUE)
+                  throw new UnsupportedSyntaxException("supplementary character");
+               yield (char) value;
+            }
+            final int value = parseHex(pos, pos + 2);
+            pos += 2;
+            yield (char) value;
+         }
+         case 'u' -> {
+            final int value = parseHex(pos, pos + 4);
+            pos += 4;
+            yield (char) value;
+         }
+         case 'c' -> {
+            if (pos >= regEx.length())
+               throw new UnsupportedSyntaxException("illegal control escape sequence");
+            yield (char) (regEx.charAt(pos++) ^ 64);
+         }
+         default -> {
+            // back references, Unicode properties, and other escape sequences denoting more than a single character
+            if (escaped < 128 && Character.isLetterOrDigit(escaped))
+               throw new UnsupportedSyntaxException("escape sequence \\" + escaped);
+            yield escaped;
+         }
+      };
+      if (Character.isSurrogate(ch))
+         throw new UnsupportedSyntaxException("supplementary character");
+      return ch;
+   }
+
+   private int parseHex(final int start, final int end) throws UnsupportedSyntaxException {
+      if (end > regEx.length() || end == start || end - start > 6)
+         throw new UnsupportedSyntaxException("illegal hexadecimal escape sequence");
+      int value = 0;
+      for (int i = start; i < end; i++) {
+         final int digit = Character.digit(regEx.charAt(i), 16);
+         if (digit < 0)
+            throw new UnsupportedSyntaxException("illegal hexadecimal escape sequence");
+         value = value * 16 + digit;
+      }
+      return value;
+   }
+
+   private Node parseQuantifier(final Node atom) throws UnsupportedSyntaxException {
+      final int len = regEx.length();
+      if (pos >= len)
+         return atom;
+
+      final int min;
+      final int max;
+      switch (regEx.charAt(pos)) {
+         case '*' -> {
+            min = 0;
+            max = -1;
+            pos++;
+         }
+         case '+' -> {
+            min = 1;
+            max = -1;
+            pos++;
+         }
+         case '?' -> {
+            min = 0;
+            max = 1;
+            pos++;
+         }
+         case '{' -> {
+            final int end = regEx.indexOf('}', pos);
+            if (end < 0)
+               throw new UnsupportedSyntaxException("unclosed counted closure");
+            final var bounds = regEx.substring(pos + 1, end);
+            final int comma = bounds.indexOf(',');
+            try {
+               if (comma < 0) {
+                  min = max = Integer.parseInt(bounds);
+               } else {
+                  min = Integer.parseInt(bounds.substring(0, comma));
+                  max = comma == bounds.length() - 1 ? -1 : Integer.parseInt(bounds.substring(comma + 1));
+               }
+            } catch (final NumberFormatException ex) {
+               throw new UnsupportedSyntaxException("illegal repetition");
+            }
+            if (min < 0 || max != -1 && max < min || Math.max(min, max) > MAX_SIZE)
+               throw new UnsupportedSyntaxException("illegal repetition");
+            pos = end + 1;
+         }
+         default -> {
+            return atom;
+         }
+      }
+
+      if (atom instanceof Assertion)
+         throw new UnsupportedSyntaxException("quantified boundary matcher");
+      if ((max == -1 || max > 1) && isNullable(atom))
+         // java.util.regex stops repeating after an empty iteration, which the automaton cannot reproduce
+         throw new UnsupportedSyntaxException("repetition of possibly empty expression");
+
+      boolean isGreedy = true;
+      if (pos < len && regEx.charAt(pos) == '?') {
+         isGreedy = false;
+         pos++;
+      } else if (pos < len && regEx.charAt(pos) == '+')
+         throw new UnsupportedSyntaxException("possessive quantifier");
+      if (pos < len && "*+?{".indexOf(regEx.charAt(pos)) >= 0)
+         throw new UnsupportedSyntaxException("nested quantifier");
+
+      return new Repetition(atom, min, max, isGreedy);
+   }
+
+   private Node parseSequence() throws UnsupportedSyntaxException {
+      final var items = new ArrayList<Node>();
+      while (pos < regEx.length() && regEx.charAt(pos) != '|' && regEx.charAt(pos) != ')') {
+         if (regEx.startsWith("\\Q", pos)) {
+            int end = regEx.indexOf("\\E", pos + 2);
+            if (end < 0) {
+               end = regEx.length();
+            }
+            if (end == pos + 2)
+               throw new UnsupportedSyntaxException("empty quote");
+            for (int i = pos + 2; i < end - 1; i++) {
+               items.add(literal(regEx.charAt(i)));
+            }
+            final char last = regEx.charAt(end - 1);
+            pos = Math.min(regEx.length(), end + 2);
+            // a quantifier following a quote applies to its last character only
+            items.add(parseQuantifier(literal(last)));
+            continue;
+         }
+         items.add(parseQuantifier(parseAtom()));
+      }
+      return items.size() == 1 ? items.get(0) : new Sequence(items);
+   }
+
+   private void setSplitTargets(final int split, final int body, final int exit, final boolean isGreedy) {
+      args1[split] = isGreedy ? body : exit;
+      args2[split] = isGreedy ? exit : body;
+   }
+}
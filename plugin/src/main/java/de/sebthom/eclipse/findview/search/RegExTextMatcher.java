@@ -0,0 +1,59 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link TextMatcher} backed by {@link java.util.regex}.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class RegExTextMatcher implements TextMatcher {
+
+   private final Pattern pattern;
+
+   public RegExTextMatcher(final Pattern pattern) {
+      this.pattern = pattern;
+   }
+
+   @Override
+   public CharSequence guard(final CharSequence text, final long budgetMillis, final BooleanSupplier isCanceled) {
+      return new WatchdogCharSequence(text, budgetMillis, isCanceled);
+   }
+
+   @Override
+   public Pattern getPattern() {
+      return pattern;
+   }
+
+   @Override
+   public Cursor matcher(final CharSequence text, final int regionStart, final int regionEnd) {
+      final Matcher matcher = pattern.matcher(text);
+      matcher.useTransparentBounds(true);
+      matcher.useAnchoringBounds(false);
+      matcher.region(regionStart, regionEnd);
+      return new Cursor() {
+         @Override
+         public int end() {
+            return matcher.end();
+         }
+
+         @Override
+         public boolean find() {
+            return matcher.find();
+         }
+
+         @Override
+         public int start() {
+            return matcher.start();
+         }
+      };
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Pre-parsed replacement string.
+ * <p>
+ * For regular expression searches the replacement may contain the group references <code>$n</code> and
+ * <code>${name}</code> known from {@link Matcher#appendReplacement(StringBuilder, String)} as well as the escape sequences
+ * <code>\n</code>, <code>\r</code> and <code>\t</code>. Any other character preceded by a backslash is taken literally, e.g.
+ * <code>\$</code> or <code>\\</code>. For plain text searches the replacement is always taken literally.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class ReplacementTemplate {
+
+   private interface Part {
+      void appendTo(StringBuilder sb, Matcher match);
+   }
+
+   /**
+    * @param pattern the pattern of a regular expression search or <code>null</code> for plain text searches
+    * @throws IllegalArgumentException if the replacement contains an invalid escape sequence or group reference
+    */
+   public static ReplacementTemplate of(final String replacement, final @Nullable Pattern pattern) {
+      if (pattern == null || replacement.indexOf('\\') < 0 && replacement.indexOf('$') < 0)
+         return new ReplacementTemplate(replacement, List.of());
+
+      final int groupCount = pattern.matcher("").groupCount();
+      final var parts = new ArrayList<Part>();
+      final var literal = new StringBuilder();
+      final int len = replacement.length();
+      int i = 0;
+      while (i < len) {
+         final char ch = replacement.charAt(i++);
+         if (ch == '\\') {
+            if (i == len)
+               throw new IllegalArgumentException("Character to be escaped is missing");
+            final char escaped = replacement.charAt(i++);
+            literal.append(switch (escaped) {
+               case 'n' -> '\n';
+               case 'r' -> '\r';
+               case 't' -> '\t';
+               default -> escaped;
+            });
+         } else if (ch == '$') {
+            if (i == len)
+               throw new IllegalArgumentException("Illegal group reference: group index is missing");
+
+            if (!literal.isEmpty()) {
+               final var text = literal.toString();
+               parts.add((sb, match) -> sb.append(text));
+               literal.setLength(0);
+            }
+
+            if (replacement.charAt(i) == '{') {
+               final int nameEnd = replacement.indexOf('}', i);
+               if (nameEnd < 0)
+                  throw new IllegalArgumentException("Named capturing group is missing trailing '}'");
+               final var groupName = replacement.substring(i + 1, nameEnd);
+               if (groupName.isEmpty() || !groupName.matches("[a-zA-Z][a-zA-Z0-9]*"))
+                  throw new IllegalArgumentException("Illegal capturing group name: " + groupName);
+               checkGroupExists(pattern, groupName);
+               parts.add((sb, match) -> {
+                  final var group = match.group(groupName);
+                  if (group != null) {
+                     sb.append(group);
+                  }
+               });
+               i = nameEnd + 1;
+            } else {
+               // same as Matcher.appendReplacement: consume further digits as long as they form an existing group number
+               int groupNumber = Character.digit(replacement.charAt(i++), 10);
+               if (groupNumber < 0)
+                  throw new IllegalArgumentException("Illegal group reference");
+               while (i < len) {
+                  final int digit = Character.digit(replacement.charAt(i), 10);
+                  if (digit < 0 || groupNumber * 10 + digit > groupCount) {
+                     break;
+                  }
+                  groupNumber = groupNumber * 10 + digit;
+                  i++;
+               }
+               if (groupNumber > groupCount)
+                  throw new IllegalArgumentException("No group " + groupNumber);
+               final int group = groupNumber;
+               parts.add((sb, match) -> {
+                  final var value = match.group(group);
+                  if (value != null) {
+                     sb.append(value);
+                  }
+               });
+            }
+         } else {
+            literal.append(ch);
+         }
+      }
+
+      if (parts.isEmpty())
+         return new ReplacementTemplate(literal.toString(), List.of());
+
+      if (!literal.isEmpty()) {
+         final var text = literal.toString();
+         parts.add((sb, match) -> sb.append(text));
+      }
+      return new ReplacementTemplate(replacement, parts);
+   }
+
+   /**
+    * @throws IllegalArgumentException if the given pattern has no capturing group with the given name
+    */
+   private static void checkGroupExists(final Pattern pattern, final String groupName) {
+      // the pattern made optional matches the empty string, thus its groups can be queried. The line break ends a trailing
+      // comment of patterns using the COMMENTS flag and is optional like the rest of the pattern otherwise.
+      final var matcher = Pattern.compile("(?:" + pattern.pattern() + "\n)?", pattern.flags()).matcher("");
+      if (matcher.matches()) {
+         matcher.group(groupName);
+      }
+   }
+
+   private final String text;
+
+   /**
+    * empty if the replacement does not depend on the match
+    */
+   private final List<Part> parts;
+
+   private ReplacementTemplate(final String text, final List<Part> parts) {
+      this.text = text;
+      this.parts = parts;
+   }
+
+   /**
+    * @return the replacement for the given match
+    */
+   public String expand(final Matcher match) {
+      if (parts.isEmpty())
+         return text;
+
+      final var sb = new StringBuilder();
+      for (final var part : parts) {
+         part.appendTo(sb, match);
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @return the replacement if it does not depend on the match
+    * @throws IllegalStateException if the replacement contains group references
+    */
+   public String getConstant() {
+      if (!parts.isEmpty())
+         throw new IllegalStateException("Replacement depends on the match");
+      return text;
+   }
+
+   /**
+    * @return true if the replacement contains no group references, i.e. is the same for all matches
+    */
+   public boolean isConstant() {
+      return parts.isEmpty();
+   }
+}
@@ -0,0 +1,38 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of the search term and match options, safe to hand over to background threads.
+ *
+ * @param matcherEngine the id of the {@link MatcherEngine} used for regular expressions
+ *
+ * @author Sebastian Thomschke
+ */
+public record SearchOptions(String searchString, boolean matchCase, boolean matchWholeWord, boolean matchRegEx, String matcherEngine) {
+
+   /**
+    * @throws java.util.regex.PatternSyntaxException if {@link #matchRegEx()} is set and the search string is not a valid regular expression
+    */
+   public Pattern toPattern() {
+      final String regEx;
+      if (matchRegEx) {
+         regEx = searchString;
+      } else {
+         if (matchWholeWord) {
+            regEx = "\\b" + Pattern.quote(searchString) + "\\b";
+         } else {
+            regEx = Pattern.quote(searchString);
+         }
+      }
+
+      // Pattern is fast: https://www.baeldung.com/java-case-insensitive-string-matching
+      return Pattern.compile(regEx, matchCase ? 0 : Pattern.CASE_INSENSITIVE);
+   }
+}
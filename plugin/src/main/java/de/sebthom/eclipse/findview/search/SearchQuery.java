@@ -0,0 +1,33 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+/**
+ * Immutable description of a search, i.e. what to match and the limits the search runs within.
+ *
+ * @param maxMatches the maximum number of matches stored, further matches are only counted
+ * @param regExTimeout the number of milliseconds after which a regular expression that makes no progress is aborted, see
+ *           {@link WatchdogCharSequence}
+ *
+ * @author Sebastian Thomschke
+ */
+public record SearchQuery(SearchOptions options, int maxMatches, long regExTimeout) {
+
+   public SearchQuery {
+      if (maxMatches < 0)
+         throw new IllegalArgumentException("[maxMatches] must not be negative");
+      if (regExTimeout <= 0)
+         throw new IllegalArgumentException("[regExTimeout] must be positive");
+   }
+
+   /**
+    * @return this query with {@link #regExTimeout()} limited to the given number of milliseconds
+    */
+   public SearchQuery withMaxRegExTimeout(final long maxRegExTimeout) {
+      return regExTimeout <= maxRegExTimeout ? this : new SearchQuery(options, maxMatches, maxRegExTimeout);
+   }
+}
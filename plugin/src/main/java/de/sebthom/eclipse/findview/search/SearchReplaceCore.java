@@ -0,0 +1,267 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+/**
+ * Searches and replaces the matches of a {@link SearchQuery} in arbitrary text independent of the workbench, thus usable from
+ * any thread and outside of Eclipse. The text is read through a {@link CharSequence}, e.g. a {@link DocumentSnapshot}, the
+ * content of a file or a string.
+ * <p>
+ * Methods reading the text throw {@link WatchdogCharSequence.AbortedException} if a regular expression makes no progress within
+ * the query's <code>regExTimeout</code> and propagate exceptions of the text, e.g.
+ * {@link DocumentSnapshot.StaleSnapshotException}.
+ * <p>
+ * Thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class SearchReplaceCore {
+
+   /**
+    * The replacement texts of the matches, the element at index <code>i</code> replaces the match at index <code>i</code>.
+    */
+   public record Replacements(MatchSet matches, List<String> texts) {
+
+      /**
+       * Replaces the matches in the given document in document order, within a strictly sequential rewrite session unless a
+       * rewrite session is already active.
+       *
+       * @param doc the document with the content the replacements were computed for
+       */
+      public void applyTo(final IDocument doc) throws BadLocationException {
+         final var docExt = doc instanceof final IDocumentExtension4 ext && ext.getActiveRewriteSession() == null ? ext : null;
+         final var rewriteSession = docExt == null ? null : docExt.startRewriteSession(DocumentRewriteSessionType.STRICTLY_SEQUENTIAL);
+         try {
+            int delta = 0;
+            for (int i = 0, l = matches.size(); i < l; i++) {
+               final int matchLength = matches.getLength(i);
+               final var replaceWith = texts.get(i);
+               doc.replace(matches.getOffset(i) + delta, matchLength, replaceWith);
+               delta += replaceWith.length() - matchLength;
+            }
+         } finally {
+            if (docExt != null && rewriteSession != null) {
+               docExt.stopRewriteSession(rewriteSession);
+            }
+         }
+      }
+   }
+
+   /**
+    * Number of matches after which cancellation is checked resp. progress is reported.
+    */
+   private static final int CANCEL_CHECK_INTERVAL = 256;
+
+   /**
+    * Minimum interval between two hand-overs of the refined match count.
+    */
+   private static final long COUNT_REPORT_INTERVAL_NANOS = 250_000_000L;
+
+   private final SearchQuery query;
+   private final TextMatcher textMatcher;
+
+   /**
+    * @throws java.util.regex.PatternSyntaxException if {@link SearchOptions#matchRegEx()} is set and the search string is not a
+    *            valid regular expression
+    */
+   public SearchReplaceCore(final SearchQuery query) {
+      this.query = query;
+      textMatcher = MatcherCache.get(query.options());
+   }
+
+   /**
+    * @return the replacement template of the given replacement string, resolving group references against the query's regular
+    *         expression
+    * @throws IllegalArgumentException if the replacement string is invalid
+    */
+   public ReplacementTemplate compileReplacement(final String replacement) {
+      return ReplacementTemplate.of(replacement, query.options().matchRegEx() ? textMatcher.getPattern() : null);
+   }
+
+   /**
+    * @return the replacement for the match at the given range or <code>null</code> if the range is not a match of the query
+    */
+   public @Nullable String computeReplacement(final CharSequence text, final ReplacementTemplate template, final int offset,
+         final int length) {
+      if (template.isConstant())
+         return template.getConstant();
+
+      // re-match the range to resolve the group references
+      final var matcher = getPattern().matcher(guard(text, () -> false));
+      matcher.useTransparentBounds(true);
+      matcher.useAnchoringBounds(false);
+      matcher.region(offset, offset + length);
+      return matcher.matches() ? template.expand(matcher) : null;
+   }
+
+   /**
+    * Computes the replacements of all matches.
+    *
+    * @param onProgress invoked periodically with the offset up to which the text has been scanned
+    * @return the replacements or <code>null</code> if canceled
+    */
+   public @Nullable Replacements computeReplacements(final CharSequence text, final ReplacementTemplate template,
+         final BooleanSupplier isCanceled, final IntConsumer onProgress) {
+      final var matches = new MatchSet.Builder();
+      final var texts = new ArrayList<String>();
+      final var guardedText = guard(text, isCanceled);
+
+      if (template.isConstant()) {
+         final var replacement = template.getConstant();
+         final var cursor = textMatcher.matcher(guardedText);
+         while (cursor.find()) {
+            matches.add(cursor.start(), cursor.end() - cursor.start());
+            texts.add(replacement);
+            if (matches.size() % CANCEL_CHECK_INTERVAL == 0 && !reportProgress(cursor.end(), isCanceled, onProgress))
+               return null;
+         }
+      } else if (textMatcher instanceof final RegExTextMatcher regExMatcher) {
+         // group references can only be resolved with the regular expression matcher
+         final var matcher = regExMatcher.getPattern().matcher(guardedText);
+         while (matcher.find()) {
+            matches.add(matcher.start(), matcher.end() - matcher.start());
+            texts.add(template.expand(matcher));
+            if (matches.size() % CANCEL_CHECK_INTERVAL == 0 && !reportProgress(matcher.end(), isCanceled, onProgress))
+               return null;
+         }
+      } else {
+         // the matches of other engines are re-matched with java.util.regex to resolve the group references
+         final var cursor = textMatcher.matcher(guardedText);
+         final var matcher = getPattern().matcher(new WatchdogCharSequence(text, query.regExTimeout(), isCanceled));
+         matcher.useTransparentBounds(true);
+         matcher.useAnchoringBounds(false);
+         while (cursor.find()) {
+            matcher.region(cursor.start(), cursor.end());
+            if (!matcher.matches()) {
+               continue;
+            }
+            matches.add(cursor.start(), cursor.end() - cursor.start());
+            texts.add(template.expand(matcher));
+            if (matches.size() % CANCEL_CHECK_INTERVAL == 0 && !reportProgress(cursor.end(), isCanceled, onProgress))
+               return null;
+         }
+      }
+
+      if (isCanceled.getAsBoolean())
+         return null;
+      return new Replacements(matches.build(), texts);
+   }
+
+   /**
+    * Computes the update of the given matches of the text before an edit.
+    *
+    * @param text the content after the edit
+    * @return <code>null</code> if the matches cannot be updated incrementally and a full search is required
+    * @see IncrementalSearch#computeUpdate(MatchSet, CharSequence, SearchOptions, TextMatcher, int, int, int)
+    */
+   public IncrementalSearch.@Nullable Update computeUpdate(final MatchSet matches, final CharSequence text, final int offset,
+         final int removedLength, final int insertedLength) {
+      return IncrementalSearch.computeUpdate(matches, guard(text, () -> false), query.options(), textMatcher, offset,
+         removedLength, insertedLength);
+   }
+
+   /**
+    * Stores at most {@link SearchQuery#maxMatches()} matches and counts the remaining ones.
+    *
+    * @return the matches or <code>null</code> if canceled
+    */
+   public @Nullable MatchSet findAll(final CharSequence text, final BooleanSupplier isCanceled) {
+      return textMatcher.findAll(guard(text, isCanceled), query.maxMatches(), isCanceled);
+   }
+
+   /**
+    * Like {@link #findAll(CharSequence, BooleanSupplier)} but scans large snapshots in parallel chunks on the given pool, see
+    * {@link ChunkedSearch}, and hands over the stored matches early if they are truncated.
+    *
+    * @param onCountRefined invoked once the match limit is reached with the stored matches and an incomplete total count and
+    *           periodically with the refined count while the remaining matches are counted
+    * @return the matches or <code>null</code> if canceled
+    */
+   public @Nullable MatchSet findAll(final CharSequence text, final @Nullable ForkJoinPool pool, final BooleanSupplier isCanceled,
+         final Consumer<MatchSet> onCountRefined) {
+      if (pool != null && text instanceof final DocumentSnapshot snapshot && ChunkedSearch.isApplicable(text, query.options(), pool))
+         return ChunkedSearch.findAll(pool, snapshot, query.options(), textMatcher, query.maxMatches(), query.regExTimeout(),
+            isCanceled, onCountRefined);
+
+      final var cursor = textMatcher.matcher(guard(text, isCanceled));
+      final var matches = new MatchSet.Builder();
+      while (cursor.find()) {
+         if (matches.size() % CANCEL_CHECK_INTERVAL == 0 && isCanceled.getAsBoolean())
+            return null;
+         if (matches.size() == query.maxMatches())
+            return count(cursor, matches.build(), isCanceled, onCountRefined);
+         matches.add(cursor.start(), cursor.end() - cursor.start());
+      }
+      return isCanceled.getAsBoolean() ? null : matches.build();
+   }
+
+   /**
+    * Counts the matches following the given stored matches without storing them.
+    *
+    * @param cursor positioned on the first match that is not stored
+    */
+   private @Nullable MatchSet count(final TextMatcher.Cursor cursor, final MatchSet storedMatches, final BooleanSupplier isCanceled,
+         final Consumer<MatchSet> onCountRefined) {
+      int count = storedMatches.size() + 1;
+      onCountRefined.accept(storedMatches.withTotalCount(count, false));
+
+      long nextReport = System.nanoTime() + COUNT_REPORT_INTERVAL_NANOS;
+      while (cursor.find()) {
+         count++;
+         if (count % CANCEL_CHECK_INTERVAL == 0) {
+            if (isCanceled.getAsBoolean())
+               return null;
+            if (System.nanoTime() >= nextReport) {
+               onCountRefined.accept(storedMatches.withTotalCount(count, false));
+               nextReport = System.nanoTime() + COUNT_REPORT_INTERVAL_NANOS;
+            }
+         }
+      }
+      return isCanceled.getAsBoolean() ? null : storedMatches.withTotalCount(count, true);
+   }
+
+   private Pattern getPattern() {
+      final var pattern = textMatcher.getPattern();
+      if (pattern == null)
+         throw new IllegalStateException("Matcher of regular expression query has no pattern: " + query);
+      return pattern;
+   }
+
+   public SearchQuery getQuery() {
+      return query;
+   }
+
+   public TextMatcher getTextMatcher() {
+      return textMatcher;
+   }
+
+   private CharSequence guard(final CharSequence text, final BooleanSupplier isCanceled) {
+      return textMatcher.guard(text, query.regExTimeout(), isCanceled);
+   }
+
+   /**
+    * @return false if canceled
+    */
+   private boolean reportProgress(final int offset, final BooleanSupplier isCanceled, final IntConsumer onProgress) {
+      onProgress.accept(offset);
+      return !isCanceled.getAsBoolean();
+   }
+}
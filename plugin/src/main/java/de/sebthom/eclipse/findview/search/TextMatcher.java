@@ -0,0 +1,136 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A compiled search term that finds non-overlapping matches in a text.
+ * <p>
+ * Implementations are immutable and thread-safe, the cursors created by them are not.
+ *
+ * @author Sebastian Thomschke
+ */
+public interface TextMatcher {
+
+   /**
+    * Iterates over the matches in a region of a text from left to right, similar to {@link java.util.regex.Matcher#find()}.
+    */
+   interface Cursor {
+
+      /**
+       * @return the offset after the last character of the current match
+       */
+      int end();
+
+      /**
+       * Advances to the next match.
+       *
+       * @return <code>false</code> if there are no more matches
+       */
+      boolean find();
+
+      /**
+       * @return the offset of the first character of the current match
+       */
+      int start();
+   }
+
+   /**
+    * Number of matches after which {@link #findAll(CharSequence, int, BooleanSupplier)} checks for cancellation.
+    */
+   int CANCEL_CHECK_INTERVAL = 256;
+
+   /**
+    * Compiles the given options into the most efficient matcher available: a {@link LiteralTextMatcher} if the search string
+    * is not a regular expression, the matcher of the {@link SearchOptions#matcherEngine() selected engine} if it supports the
+    * regular expression, a {@link RegExTextMatcher} otherwise.
+    *
+    * @throws java.util.regex.PatternSyntaxException if {@link SearchOptions#matchRegEx()} is set and the search string is not a
+    *            valid regular expression
+    */
+   static TextMatcher compile(final SearchOptions options) {
+      if (!options.matchRegEx() && !options.searchString().isEmpty())
+         return new LiteralTextMatcher(options.searchString(), options.matchCase(), options.matchWholeWord());
+
+      // java.util.regex validates the syntax and resolves the group references of replacements for all engines
+      final var pattern = options.toPattern();
+      if (options.matchRegEx()) {
+         final var engine = MatcherEngines.get(options.matcherEngine());
+         final var matcher = engine == null ? null : engine.compile(pattern);
+         if (matcher != null)
+            return matcher;
+      }
+      return new RegExTextMatcher(pattern);
+   }
+
+   /**
+    * @return the number of matches in the given text or <code>-1</code> if the scan was canceled
+    */
+   default int count(final CharSequence text, final BooleanSupplier isCanceled) {
+      int count = 0;
+      final var cursor = matcher(text);
+      while (cursor.find()) {
+         if (count % CANCEL_CHECK_INTERVAL == 0 && isCanceled.getAsBoolean())
+            return -1;
+         count++;
+      }
+      return count;
+   }
+
+   /**
+    * Stores at most <code>maxMatches</code> matches of the given text and counts the remaining ones.
+    *
+    * @return the matches or <code>null</code> if the scan was canceled
+    */
+   default @Nullable MatchSet findAll(final CharSequence text, final int maxMatches, final BooleanSupplier isCanceled) {
+      final var matches = new MatchSet.Builder();
+      int count = 0;
+      final var cursor = matcher(text);
+      while (cursor.find()) {
+         if (count % CANCEL_CHECK_INTERVAL == 0 && isCanceled.getAsBoolean())
+            return null;
+         if (count < maxMatches) {
+            matches.add(cursor.start(), cursor.end() - cursor.start());
+         }
+         count++;
+      }
+      return matches.build().withTotalCount(count, true);
+   }
+
+   /**
+    * Guards the given text against match operations that make no progress, e.g. because of catastrophic backtracking.
+    *
+    * @param budgetMillis the maximum time a match operation may continue without progress
+    * @return the text to pass to {@link #matcher(CharSequence, int, int)}, a {@link WatchdogCharSequence} if matching may take
+    *         exponential time
+    */
+   default CharSequence guard(final CharSequence text, final long budgetMillis, final BooleanSupplier isCanceled) {
+      return text;
+   }
+
+   /**
+    * @return the {@link java.util.regex} pattern finding the same matches, used to resolve the group references of
+    *         replacements, or <code>null</code> if this matcher searches for plain text
+    */
+   default @Nullable Pattern getPattern() {
+      return null;
+   }
+
+   default Cursor matcher(final CharSequence text) {
+      return matcher(text, 0, text.length());
+   }
+
+   /**
+    * Creates a cursor over the matches located within the given region. Characters outside of the region may still be inspected
+    * to evaluate word boundaries and look-around constructs.
+    */
+   Cursor matcher(CharSequence text, int regionStart, int regionEnd);
+}
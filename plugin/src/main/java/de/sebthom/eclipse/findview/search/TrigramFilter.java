@@ -0,0 +1,148 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Immutable Bloom filter over the case folded character trigrams of a text, used to rule out texts that cannot contain a match
+ * without scanning them.
+ * <p>
+ * The filter is created with one bit per character (at most {@link #MAX_BITS}) and then folded in half as long as the
+ * fraction of set bits stays below {@link #MAX_FILL_RATIO}, thus its size adapts to the number of distinct trigrams of the
+ * text. Case folding makes the filter independent of the case sensitivity of a search.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class TrigramFilter {
+
+   static final int MIN_BITS = 64;
+   static final int MAX_BITS = 16 * 1024;
+
+   /**
+    * With two probes per trigram this results in a false positive rate of about 16% per trigram.
+    */
+   static final double MAX_FILL_RATIO = 0.4;
+
+   /**
+    * filter of texts shorter than three characters, which contain no trigrams
+    */
+   public static final TrigramFilter EMPTY = new TrigramFilter(new long[MIN_BITS / Long.SIZE]);
+
+   public static final long[] NO_TRIGRAMS = {};
+
+   private static char foldCase(final char ch) {
+      if (ch < 128)
+         return ch >= 'A' && ch <= 'Z' ? (char) (ch + 32) : ch;
+      return Character.toLowerCase(Character.toUpperCase(ch));
+   }
+
+   /**
+    * @return a hash of the given case folded trigram, its upper and lower half determine the two probed bits
+    */
+   private static long hash(final char ch1, final char ch2, final char ch3) {
+      final long h = ((long) ch1 << 32 | (long) ch2 << 16 | ch3) * 0x9E3779B97F4A7C15L;
+      return h ^ h >>> 29;
+   }
+
+   public static TrigramFilter fromWords(final long[] words) {
+      if (words.length == 0 || Integer.bitCount(words.length) != 1 || words.length * Long.SIZE > MAX_BITS)
+         throw new IllegalArgumentException("Invalid filter size: " + words.length);
+      return new TrigramFilter(words);
+   }
+
+   public static TrigramFilter of(final CharSequence text) {
+      final int len = text.length();
+      if (len < 3)
+         return EMPTY;
+
+      final int bits = Math.min(MAX_BITS, Math.max(MIN_BITS, Integer.highestOneBit(len - 1) << 1));
+      final var words = new long[bits / Long.SIZE];
+      final int mask = bits - 1;
+      char ch1 = foldCase(text.charAt(0));
+      char ch2 = foldCase(text.charAt(1));
+      for (int i = 2; i < len; i++) {
+         final char ch3 = foldCase(text.charAt(i));
+         final long h = hash(ch1, ch2, ch3);
+         final int bit1 = (int) h & mask;
+         final int bit2 = (int) (h >>> 32) & mask;
+         words[bit1 >>> 6] |= 1L << bit1;
+         words[bit2 >>> 6] |= 1L << bit2;
+         ch1 = ch2;
+         ch2 = ch3;
+      }
+
+      // as bits are addressed by the low bits of the hash, folding the upper half onto the lower half halves the filter
+      int wordCount = words.length;
+      while (wordCount * Long.SIZE > MIN_BITS) {
+         int setBits = 0;
+         for (int i = 0; i < wordCount; i++) {
+            setBits += Long.bitCount(words[i]);
+         }
+         final double fillRatio = (double) setBits / (wordCount * Long.SIZE);
+         if (2 * fillRatio - fillRatio * fillRatio > MAX_FILL_RATIO) {
+            break;
+         }
+         wordCount /= 2;
+         for (int i = 0; i < wordCount; i++) {
+            words[i] |= words[i + wordCount];
+         }
+      }
+      return new TrigramFilter(wordCount == words.length ? words : Arrays.copyOf(words, wordCount));
+   }
+
+   /**
+    * @return the hashes of the trigrams every match of the given search contains, empty if the search cannot be narrowed down
+    *         by trigrams
+    */
+   public static long[] requiredTrigrams(final SearchOptions options) {
+      final var literals = options.matchRegEx() ? RegExLiterals.of(options.searchString()) : List.of(options.searchString());
+      final var hashes = new LinkedHashSet<Long>();
+      for (final var literal : literals) {
+         for (int i = 2; i < literal.length(); i++) {
+            hashes.add(hash(foldCase(literal.charAt(i - 2)), foldCase(literal.charAt(i - 1)), foldCase(literal.charAt(i))));
+         }
+      }
+      if (hashes.isEmpty())
+         return NO_TRIGRAMS;
+      return hashes.stream().mapToLong(Long::longValue).toArray();
+   }
+
+   private final long[] words;
+
+   private TrigramFilter(final long[] words) {
+      this.words = words;
+   }
+
+   /**
+    * @param trigrams trigram hashes as returned by {@link #requiredTrigrams(SearchOptions)}
+    * @return false if the text this filter was created for definitely does not contain all of the given trigrams
+    */
+   public boolean mayContainAll(final long[] trigrams) {
+      final int mask = words.length * Long.SIZE - 1;
+      for (final long h : trigrams) {
+         final int bit1 = (int) h & mask;
+         final int bit2 = (int) (h >>> 32) & mask;
+         if ((words[bit1 >>> 6] & 1L << bit1) == 0 || (words[bit2 >>> 6] & 1L << bit2) == 0)
+            return false;
+      }
+      return true;
+   }
+
+   public int sizeInBytes() {
+      return words.length * Long.BYTES;
+   }
+
+   /**
+    * @return the bits of the filter for serialization, must not be modified
+    */
+   public long[] toWords() {
+      return words;
+   }
+}
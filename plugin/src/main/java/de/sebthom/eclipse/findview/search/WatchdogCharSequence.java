@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Text wrapper that aborts regular expression matching which makes no progress, e.g. because of catastrophic backtracking
+ * caused by a half-typed pattern like <code>(a+)+$</code>.
+ * <p>
+ * A running {@link java.util.regex.Matcher} operation cannot be interrupted, but it reads the text through
+ * {@link #charAt(int)}. Every {@link #CHECK_INTERVAL} character reads the wrapper checks whether the search was canceled and
+ * whether the highest offset read so far has advanced. If it has not advanced for longer than the time budget, i.e. the matcher
+ * keeps re-examining the same part of the text, an {@link AbortedException} is thrown out of the matcher. Linear scans of large
+ * texts therefore never exceed the budget no matter how long they take.
+ * <p>
+ * Not thread-safe.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class WatchdogCharSequence implements CharSequence {
+
+   /**
+    * Thrown out of a match operation on a {@link WatchdogCharSequence} that exceeded its time budget or was canceled.
+    */
+   public static final class AbortedException extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      private final boolean isTimeout;
+
+      AbortedException(final boolean isTimeout) {
+         super(isTimeout ? "Matching made no progress within the time budget." : "Matching was canceled.", null, false, false);
+         this.isTimeout = isTimeout;
+      }
+
+      /**
+       * @return true if the time budget was exceeded, false if the search was canceled
+       */
+      public boolean isTimeout() {
+         return isTimeout;
+      }
+   }
+
+   /**
+    * number of character reads between two checks, keeps the overhead of {@link System#nanoTime()} negligible
+    */
+   static final int CHECK_INTERVAL = 16 * 1024;
+
+   private final CharSequence text;
+   private final long budgetNanos;
+   private final BooleanSupplier isCanceled;
+
+   private int reads;
+   private int maxIndex = -1;
+   private int progressIndex = -1;
+   private long progressNanos = System.nanoTime();
+
+   /**
+    * @param budgetMillis the maximum time matching may continue without reading beyond the highest offset read so far
+    */
+   public WatchdogCharSequence(final CharSequence text, final long budgetMillis, final BooleanSupplier isCanceled) {
+      this.text = text;
+      budgetNanos = budgetMillis * 1_000_000L;
+      this.isCanceled = isCanceled;
+   }
+
+   @Override
+   public char charAt(final int index) {
+      if (index > maxIndex) {
+         maxIndex = index;
+      }
+      if (++reads == CHECK_INTERVAL) {
+         reads = 0;
+         check();
+      }
+      return text.charAt(index);
+   }
+
+   private void check() {
+      if (isCanceled.getAsBoolean())
+         throw new AbortedException(false);
+
+      final long now = System.nanoTime();
+      if (maxIndex > progressIndex) {
+         progressIndex = maxIndex;
+         progressNanos = now;
+      } else if (now - progressNanos > budgetNanos)
+         throw new AbortedException(true);
+   }
+
+   @Override
+   public int length() {
+      return text.length();
+   }
+
+   @Override
+   public CharSequence subSequence(final int start, final int end) {
+      // only used to extract matched groups, which involves no backtracking
+      return text.subSequence(start, end);
+   }
+
+   @Override
+   public String toString() {
+      return text.toString();
+   }
+}
@@ -0,0 +1,71 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.search;
+
+import java.util.regex.Pattern;
+
+/**
+ * The definition of a word character used by {@link Pattern} for <code>\b</code> of the running JDK, so that matchers not
+ * based on {@link Pattern} find the same word boundaries.
+ * <p>
+ * Up to JDK 18 any letter or digit is a word character, since JDK 19 (JDK-8264160) only <code>[a-zA-Z0-9_]</code> unless
+ * {@link Pattern#UNICODE_CHARACTER_CLASS} is set. In both cases a non-spacing mark attached to a letter or digit is a word
+ * character. Characters are inspected as code points, thus a supplementary letter is a word character as well.
+ *
+ * @author Sebastian Thomschke
+ */
+final class WordChars {
+
+   /**
+    * true if the running JDK treats non-ASCII letters as word characters for <code>\b</code>
+    */
+   static final boolean IS_UNICODE = !Pattern.compile("a\\b").matcher("aé").find();
+
+   /**
+    * @return true if the given character is a non-spacing mark attached to a letter or digit, the characters before the given
+    *         index are inspected like {@link Pattern} does
+    */
+   private static boolean isAttachedMark(final CharSequence text, final int codePoint, final int index) {
+      if (Character.getType(codePoint) != Character.NON_SPACING_MARK)
+         return false;
+      for (int i = index; i >= 0; i--) {
+         final int base = Character.codePointAt(text, i);
+         if (Character.isLetterOrDigit(base))
+            return true;
+         if (Character.getType(base) != Character.NON_SPACING_MARK)
+            return false;
+      }
+      return false;
+   }
+
+   /**
+    * @return true if the character at the given index is a word character as defined by <code>\b</code>
+    */
+   static boolean isWordChar(final CharSequence text, final int index) {
+      final int codePoint = Character.codePointAt(text, index);
+      return isWordChar(codePoint) || isAttachedMark(text, codePoint, index);
+   }
+
+   private static boolean isWordChar(final int codePoint) {
+      if (codePoint == '_')
+         return true;
+      if (IS_UNICODE)
+         return Character.isLetterOrDigit(codePoint);
+      return codePoint >= 'a' && codePoint <= 'z' || codePoint >= 'A' && codePoint <= 'Z' || codePoint >= '0' && codePoint <= '9';
+   }
+
+   /**
+    * @return true if the character ending at the given index is a word character as defined by <code>\b</code>
+    */
+   static boolean isWordCharBefore(final CharSequence text, final int index) {
+      final int codePoint = Character.codePointBefore(text, index);
+      return isWordChar(codePoint) || isAttachedMark(text, codePoint, index - 1);
+   }
+
+   private WordChars() {
+   }
+}
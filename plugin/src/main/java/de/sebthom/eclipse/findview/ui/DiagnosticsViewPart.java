@@ -0,0 +1,130 @@
+/*
+ * SPDX-FileCopyrightText: © Sebastian Thomschke and contributors.
+ * SPDX-FileContributor: Sebastian Thomschke
+ * SPDX-License-Identifier: EPL-2.0
+ * SPDX-ArtifactOfProjectHomePage: https://github.com/sebthom/findview-eclipse-plugin
+ */
+package de.sebthom.eclipse.findview.ui;
+
+import static net.sf.jstuff.core.validation.NullAnalysisHelper.lateNonNull;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.dnd.Clipboard;
+import org.eclipse.swt.dnd.TextTransfer;
+import org.eclipse.swt.dnd.Transfer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.part.ViewPart;
+
+import de.sebthom.eclipse.findview.Plugin;
+import de.sebthom.eclipse.findview.localization.Messages;
+import de.sebthom.eclipse.findview.metrics.Metrics;
+
+/**
+ * Shows the latency {@link Metrics} of the Find/Replace view, refreshed periodically while the view is open. The metrics can
+ * be copied to the clipboard or written to the plugin log to attach them to support tickets.
+ *
+ * @author Sebastian Thomschke
+ */
+public final class DiagnosticsViewPart extends ViewPart {
+
+   public static final String ID = DiagnosticsViewPart.class.getName();
+
+   private static final int REFRESH_INTERVAL_MS = 1_000;
+
+   private static final String[] COLUMNS = { //
+      Messages.FindView_Diagnostics_PhaseColumn, //
+      Messages.FindView_Diagnostics_CountColumn, //
+      Messages.FindView_Diagnostics_P50Column, //
+      Messages.FindView_Diagnostics_P90Column, //
+      Messages.FindView_Diagnostics_P99Column, //
+      Messages.FindView_Diagnostics_MaxColumn, //
+      Messages.FindView_Diagnostics_AvgDocCharsColumn, //
+      Messages.FindView_Diagnostics_MaxDocCharsColumn, //
+      Messages.FindView_Diagnostics_AvgMatchesColumn //
+   };
+
+   private Table table = lateNonNull();
+
+   private final Runnable refreshTask = new Runnable() {
+      @Override
+      public void run() {
+         if (table.isDisposed())
+            return;
+         refresh();
+         table.getDisplay().timerExec(REFRESH_INTERVAL_MS, this);
+      }
+   };
+
+   @Override
+   public void createPartControl(final Composite parent) {
+      table = new Table(parent, SWT.BORDER | SWT.FULL_SELECTION | SWT.V_SCROLL | SWT.H_SCROLL);
+      table.setHeaderVisible(true);
+      table.setLinesVisible(true);
+      for (int i = 0; i < COLUMNS.length; i++) {
+         final var column = new TableColumn(table, i == 0 ? SWT.LEFT : SWT.RIGHT);
+         column.setText(COLUMNS[i]);
+         column.setWidth(i == 0 ? 160 : 90);
+      }
+
+      final var toolBar = getViewSite().getActionBars().getToolBarManager();
+      toolBar.add(new Action(Messages.FindView_Diagnostics_CopyAction) {
+         @Override
+         public void run() {
+            final var clipboard = new Clipboard(table.getDisplay());
+            try {
+               clipboard.setContents(new Object[] {Metrics.format()}, new Transfer[] {TextTransfer.getInstance()});
+            } finally {
+               clipboard.dispose();
+            }
+         }
+      });
+      toolBar.add(new Action(Messages.FindView_Diagnostics_LogAction) {
+         @Override
+         public void run() {
+            Plugin.log().info("Find/Replace view metrics:\n" + Metrics.format());
+         }
+      });
+      toolBar.add(new Action(Messages.FindView_Diagnostics_ResetAction) {
+         @Override
+         public void run() {
+            Metrics.reset();
+            refresh();
+         }
+      });
+
+      refreshTask.run();
+   }
+
+   private void refresh() {
+      table.setRedraw(false);
+      try {
+         table.removeAll();
+         for (final var stats : Metrics.snapshot()) {
+            final var nanos = stats.nanos();
+            final var item = new TableItem(table, SWT.NONE);
+            item.setText(new String[] { //
+               stats.phase().getLabel(), //
+               String.format("%,d", stats.executions()), //
+               Metrics.formatMillis(nanos.p50()), //
+               Metrics.formatMillis(nanos.p90()), //
+               Metrics.formatMillis(nanos.p99()), //
+               Metrics.formatMillis(nanos.max()), //
+               String.format("%,d", stats.documentLengths().mean()), //
+               String.format("%,d", stats.documentLengths().max()), //
+               String.format("%,d", stats.matchCounts().mean()) //
+            });
+         }
+      } finally {
+         table.setRedraw(true);
+      }
+   }
+
+   @Override
+   public void setFocus() {
+      table.setFocus();
+   }
+}
@@ -8,15 +8,10 @@
 
 import static net.sf.jstuff.core.validation.NullAnalysisHelper.lateNonNull;
 
-import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.function.UnaryOperator;
 
-import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.TableEditor;
 import org.eclipse.swt.layout.GridData;
@@ -28,112 +23,31 @@
 import org.eclipse.swt.widgets.TableItem;
 
 import de.sebthom.eclipse.commons.ui.Buttons;
+import de.sebthom.eclipse.findview.HistoryStore;
+import de.sebthom.eclipse.findview.history.HistoryEntry;
+import de.sebthom.eclipse.findview.history.HistoryLog;
 import de.sebthom.eclipse.findview.prefs.PluginPreferences;
 import net.sf.jstuff.core.Strings;
+import net.sf.jstuff.core.ref.MutableObservableRef;
 
 /**
  * @author Sebastian Thomschke
  */
 public final class FindHistory extends Composite {
 
-   public static final class HistoryEntry {
-      static HistoryEntry deserialize(final String line) {
-         final var parts = line.split("\\|", -1);
-         final UnaryOperator<String> dec = (final String s) -> URLDecoder.decode(s, StandardCharsets.UTF_8);
-         final var find = parts.length > 0 ? dec.apply(parts[0]) : "";
-         final var replace = parts.length > 1 ? dec.apply(parts[1]) : "";
-         final var mc = parts.length > 2 && "1".equals(parts[2]);
-         final var mw = parts.length > 3 && "1".equals(parts[3]);
-         final var re = parts.length > 4 && "1".equals(parts[4]);
-         final var ha = parts.length > 5 && "1".equals(parts[5]);
-         final var pi = parts.length > 6 && "1".equals(parts[6]);
-         return new HistoryEntry(find, replace, mc, mw, re, ha, pi);
-      }
-
-      public final String find;
-      public final String replace;
-      public final boolean matchCase;
-      public final boolean matchWholeWord;
-      public final boolean matchRegEx;
-      public final boolean highlightAll;
-      public boolean pinned;
-
-      public HistoryEntry(final String find, final String replace, final boolean matchCase, final boolean matchWholeWord,
-            final boolean matchRegEx, final boolean highlightAll) {
-         this(find, replace, matchCase, matchWholeWord, matchRegEx, highlightAll, false);
-      }
-
-      public HistoryEntry(final String find, final String replace, final boolean matchCase, final boolean matchWholeWord,
-            final boolean matchRegEx, final boolean highlightAll, final boolean pinned) {
-         this.find = find;
-         this.replace = replace;
-         this.matchCase = matchCase;
-         this.matchWholeWord = matchWholeWord;
-         this.matchRegEx = matchRegEx;
-         this.highlightAll = highlightAll;
-         this.pinned = pinned;
-      }
-
-      @Override
-      public boolean equals(final @Nullable Object obj) {
-         if (this == obj)
-            return true;
-         if (!(obj instanceof final HistoryEntry other))
-            return false;
-         return matchCase == other.matchCase //
-               && matchWholeWord == other.matchWholeWord //
-               && matchRegEx == other.matchRegEx //
-               && highlightAll == other.highlightAll //
-               && find.equals(other.find) //
-               && replace.equals(other.replace);
-      }
-
-      @Override
-      public int hashCode() {
-         int result = find.hashCode();
-         result = 31 * result + replace.hashCode();
-         result = 31 * result + (matchCase ? 1 : 0);
-         result = 31 * result + (matchWholeWord ? 1 : 0);
-         result = 31 * result + (matchRegEx ? 1 : 0);
-         result = 31 * result + (highlightAll ? 1 : 0);
-         return result;
-      }
-
-      String optionsDisplay() {
-         final var opts = new ArrayList<String>(4);
-         if (highlightAll) {
-            opts.add("All");
-         }
-         if (matchCase) {
-            opts.add("Case");
-         }
-         if (matchWholeWord) {
-            opts.add("Word");
-         }
-         if (matchRegEx) {
-            opts.add("RegEx");
-         }
-         return String.join(", ", opts);
-      }
-
-      String serialize() {
-         return URLEncoder.encode(find, StandardCharsets.UTF_8) + '|' //
-               + URLEncoder.encode(replace, StandardCharsets.UTF_8) + '|' //
-               + (matchCase ? '1' : '0') + '|' //
-               + (matchWholeWord ? '1' : '0') + '|' //
-               + (matchRegEx ? '1' : '0') + '|' //
-               + (highlightAll ? '1' : '0') + '|' //
-               + (pinned ? '1' : '0');
-      }
-   }
-
    private static final int HISTORY_LIMIT = 50;
 
+   /**
+    * the pinned history entries ordered from most to least recently used
+    */
+   public final MutableObservableRef<List<HistoryEntry>> pinnedEntries = MutableObservableRef.of(List.of());
+
    private Table table = lateNonNull();
    private Button btnAdd = lateNonNull();
    private Button chkAutoAdd = lateNonNull();
    private Button btnClear = lateNonNull();
    private final List<HistoryEntry> history = new ArrayList<>();
+   private final HistoryStore store = HistoryStore.get();
    private final List<TableEditor> editors = new ArrayList<>();
 
    public FindHistory(final Composite parent, final int gridSpan, final Consumer<HistoryEntry> onLoad, final Runnable onAddRequested) {
@@ -218,6 +132,8 @@ public void addEntry(final HistoryEntry he) {
          }
       }
       history.add(0, he);
+      final var records = new ArrayList<String>();
+      records.add(HistoryLog.added(he));
 
       // enforce limit by removing oldest UNPINNED entries; never remove pinned
       int toRemove = history.size() - HISTORY_LIMIT;
@@ -232,49 +148,42 @@ public void addEntry(final HistoryEntry he) {
          if (idx == -1) {
             break; // only pinned remain; do not remove
          }
-         history.remove(idx);
+         records.add(HistoryLog.removed(history.remove(idx)));
          toRemove--;
       }
-      persist();
+      store.append(records.toArray(String[]::new));
       refresh();
    }
 
+   /**
+    * @return the history entries, pinned entries first, each group ordered from most to least recently used
+    */
+   public List<HistoryEntry> getEntries() {
+      final var result = new ArrayList<HistoryEntry>(history.size());
+      for (final var he : history) {
+         if (he.pinned) {
+            result.add(he);
+         }
+      }
+      for (final var he : history) {
+         if (!he.pinned) {
+            result.add(he);
+         }
+      }
+      return result;
+   }
+
    private void clear() {
       if (history.isEmpty())
          return;
       history.removeIf(e -> !e.pinned);
-      persist();
+      store.append(HistoryLog.CLEARED);
       refresh();
    }
 
    private void load() {
       history.clear();
-      final var stored = PluginPreferences.getHistory();
-      if (Strings.isEmpty(stored))
-         return;
-      final var lines = stored.split("\n");
-      for (final var line : lines) {
-         if (Strings.isEmpty(line)) {
-            continue;
-         }
-         try {
-            history.add(HistoryEntry.deserialize(line));
-         } catch (final Exception ex) {
-            // ignore malformed entries
-         }
-      }
-   }
-
-   private void persist() {
-      final var b = new StringBuilder();
-      for (int i = 0; i < history.size(); i++) {
-         if (i > 0) {
-            b.append('\n');
-         }
-         b.append(history.get(i).serialize());
-      }
-      PluginPreferences.setHistory(b.toString());
-      PluginPreferences.save();
+      history.addAll(store.getEntries());
    }
 
    private void refresh() {
@@ -292,27 +201,21 @@ private void refresh() {
       table.removeAll();
 
       // first show pinned, then others
-      for (final var he : history) {
-         if (!he.pinned) {
-            continue;
-         }
-         createRow(he);
-      }
-      for (final var he : history) {
-         if (he.pinned) {
-            continue;
-         }
+      for (final var he : getEntries()) {
          createRow(he);
       }
       table.setRedraw(true);
       boolean hasNonPinned = false;
+      final var pinned = new ArrayList<HistoryEntry>();
       for (final var he : history) {
-         if (!he.pinned) {
+         if (he.pinned) {
+            pinned.add(he);
+         } else {
             hasNonPinned = true;
-            break;
          }
       }
       btnClear.setEnabled(hasNonPinned);
+      pinnedEntries.set(List.copyOf(pinned));
    }
 
    private void createRow(final HistoryEntry he) {
@@ -336,7 +239,7 @@ private void createRow(final HistoryEntry he) {
       pinBtn.setLayoutData(pinGD);
       Buttons.onSelected(pinBtn, () -> {
          he.pinned = !he.pinned;
-         persist();
+         store.append(HistoryLog.updated(he));
          refresh();
       });
 
@@ -349,10 +252,10 @@ private void createRow(final HistoryEntry he) {
          for (int i = 0; i < history.size(); i++) {
             if (history.get(i).equals(he)) {
                history.remove(i);
+               store.append(HistoryLog.removed(he));
                break;
             }
          }
-         persist();
          refresh();
       });
 
@@ -8,8 +8,14 @@
 
 import static net.sf.jstuff.core.validation.NullAnalysisHelper.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CLabel;
 import org.eclipse.swt.graphics.Color;
@@ -17,10 +23,14 @@
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.swt.widgets.ToolBar;
 import org.eclipse.swt.widgets.ToolItem;
@@ -31,10 +41,18 @@
 import de.sebthom.eclipse.commons.ui.Texts;
 import de.sebthom.eclipse.commons.ui.UI;
 import de.sebthom.eclipse.findview.Constants;
+import de.sebthom.eclipse.findview.FileMatches;
 import de.sebthom.eclipse.findview.Plugin;
 import de.sebthom.eclipse.findview.SearchReplaceEngine;
+import de.sebthom.eclipse.findview.SearchScope;
+import de.sebthom.eclipse.findview.history.HistoryEntry;
 import de.sebthom.eclipse.findview.localization.Messages;
+import de.sebthom.eclipse.findview.metrics.Metrics;
+import de.sebthom.eclipse.findview.metrics.Phase;
 import de.sebthom.eclipse.findview.prefs.PluginPreferences;
+import de.sebthom.eclipse.findview.search.AhoCorasickMatcher;
+import de.sebthom.eclipse.findview.search.MatcherCache;
+import de.sebthom.eclipse.findview.search.SearchOptions;
 import net.sf.jstuff.core.Strings;
 import net.sf.jstuff.core.concurrent.Threads;
 
@@ -43,6 +61,15 @@
  */
 public final class FindView extends Composite {
 
+   /**
+    * The state of the controls updated by {@link #updateControlStates()}, compared to skip updates that change nothing.
+    *
+    * @param infoImage the image of the info message or <code>null</code> if the info message is hidden
+    */
+   private record ControlStates(boolean isFindEnabled, boolean isReplaceEnabled, boolean isNoResults, @Nullable String infoImage,
+         String infoText, @Nullable String infoToolTip) {
+   }
+
    final Text searchText;
    private final @Nullable Color searchText_defaultBG;
    private final @Nullable Color searchText_defaultFG;
@@ -60,12 +87,22 @@ public final class FindView extends Composite {
    private final Text replaceWithText;
    private final Button btnReplace;
    private final Button btnReplaceAll;
+   private final Combo cmbSearchScope;
+
+   private final Table fileResultsTable;
 
    private volatile boolean anyChildHasFocus = false;
    private volatile boolean mnemonicsVisible = true;
 
    private final SearchReplaceEngine searchReplaceEngine;
 
+   /**
+    * set while a {@link #refresh()} is pending, so notifications arriving in the meantime are merged into it
+    */
+   private final AtomicBoolean isRefreshScheduled = new AtomicBoolean();
+   private @Nullable ControlStates controlStates;
+   private List<FileMatches> shownFileMatches = List.of();
+
    private FindHistory history = lateNonNull();
 
    public FindView(final Composite parent, final FindViewPart findViewPart) {
@@ -250,8 +287,67 @@ public FindView(final Composite parent, final FindViewPart findViewPart) {
          addHistoryEntryFromCurrentState();
       });
 
+      cmbSearchScope = new Combo(this, SWT.READ_ONLY);
+      for (final var scope : SearchScope.values()) {
+         cmbSearchScope.add(switch (scope) {
+            case ACTIVE_EDITOR -> Messages.FindView_Scope_ActiveEditor;
+            case OPEN_EDITORS -> Messages.FindView_Scope_OpenEditors;
+            case PROJECT -> Messages.FindView_Scope_Project;
+            case WORKSPACE -> Messages.FindView_Scope_Workspace;
+         });
+      }
+      cmbSearchScope.select(PluginPreferences.getSearchScope().ordinal());
+      cmbSearchScope.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 2, 1));
+      cmbSearchScope.addListener(SWT.Selection, ev -> {
+         PluginPreferences.setSearchScope(SearchScope.values()[cmbSearchScope.getSelectionIndex()]);
+         PluginPreferences.save();
+      });
+
+      /* ***************************************************************
+       * File Results Row
+       * ***************************************************************/
+      // virtual, as a workspace search may find matches in thousands of files
+      fileResultsTable = new Table(this, SWT.BORDER | SWT.FULL_SELECTION | SWT.V_SCROLL | SWT.H_SCROLL | SWT.VIRTUAL);
+      fileResultsTable.setHeaderVisible(true);
+      fileResultsTable.setLinesVisible(true);
+      final var fileResultsGD = new GridData(SWT.FILL, SWT.FILL, true, true, 8, 1);
+      fileResultsGD.heightHint = 120;
+      fileResultsGD.verticalIndent = 5;
+      fileResultsTable.setLayoutData(fileResultsGD);
+
+      final var colFile = new TableColumn(fileResultsTable, SWT.LEFT);
+      colFile.setText(Messages.FindView_FileColumn);
+      colFile.setWidth(500);
+
+      final var colMatches = new TableColumn(fileResultsTable, SWT.RIGHT);
+      colMatches.setText(Messages.FindView_MatchesColumn);
+      colMatches.setWidth(80);
+
+      fileResultsTable.addListener(SWT.SetData, ev -> {
+         final var results = searchReplaceEngine.fileMatches.get();
+         if (ev.index >= results.size())
+            return;
+         final var result = results.get(ev.index);
+         ((TableItem) ev.item).setText(new String[] { //
+            result.file().getFullPath().makeRelative().toString(), //
+            String.format("%,d", result.matches().getTotalCount()) //
+         });
+      });
+      fileResultsTable.addListener(SWT.DefaultSelection, ev -> {
+         final var results = searchReplaceEngine.fileMatches.get();
+         final int idx = fileResultsTable.getSelectionIndex();
+         if (idx < 0 || idx >= results.size())
+            return;
+         searchReplaceEngine.openFileMatches(results.get(idx));
+      });
+      updateFileResultsVisibility();
+
       PluginPreferences.addListener(this::onPreferencesChanged);
-      searchReplaceEngine.matches.subscribe(this::updateControlStates);
+      searchReplaceEngine.matches.subscribe(this::scheduleRefresh);
+      searchReplaceEngine.selectedMatchIndex.subscribe(this::scheduleRefresh);
+      searchReplaceEngine.openEditorsMatches.subscribe(this::scheduleRefresh);
+      searchReplaceEngine.fileMatches.subscribe(this::scheduleRefresh);
+      searchReplaceEngine.isRegExTimedOut.subscribe(this::scheduleRefresh);
 
       Buttons.onSelected(switchButton, () -> {
          final var s = searchText.getText();
@@ -269,6 +365,9 @@ public FindView(final Composite parent, final FindViewPart findViewPart) {
          PluginPreferences.setHighlightAll(he.highlightAll);
          PluginPreferences.save();
       }, this::addHistoryEntryFromCurrentState);
+      history.pinnedEntries.subscribe(this::updatePinnedTerms);
+      updatePinnedTerms();
+      warmUpMatcherCache();
 
       getDisplay().addFilter(SWT.FocusIn, this::onAnyControlFocused);
       getDisplay().addFilter(SWT.FocusOut, this::onAnyControlLostFocused);
@@ -280,7 +379,13 @@ public void dispose() {
       getDisplay().removeFilter(SWT.FocusOut, this::onAnyControlLostFocused);
 
       PluginPreferences.removeListener(this::onPreferencesChanged);
-      searchReplaceEngine.matches.unsubscribe(this::updateControlStates);
+      searchReplaceEngine.matches.unsubscribe(this::scheduleRefresh);
+      searchReplaceEngine.selectedMatchIndex.unsubscribe(this::scheduleRefresh);
+      searchReplaceEngine.openEditorsMatches.unsubscribe(this::scheduleRefresh);
+      searchReplaceEngine.fileMatches.unsubscribe(this::scheduleRefresh);
+      searchReplaceEngine.isRegExTimedOut.unsubscribe(this::scheduleRefresh);
+      history.pinnedEntries.unsubscribe(this::updatePinnedTerms);
+      searchReplaceEngine.setPinnedTerms(List.of());
       super.dispose();
    }
 
@@ -291,10 +396,72 @@ private void addHistoryEntryFromCurrentState() {
       if (Strings.isEmpty(find))
          return;
       final var replace = replaceWithText.getText();
-      history.addEntry(new FindHistory.HistoryEntry(find, replace, PluginPreferences.isMatchCase(), PluginPreferences.isMatchWholeWord(),
+      history.addEntry(new HistoryEntry(find, replace, PluginPreferences.isMatchCase(), PluginPreferences.isMatchWholeWord(),
          PluginPreferences.isMatchRegEx(), PluginPreferences.isHighlightAll()));
    }
 
+   private ControlStates computeControlStates() {
+      final var editor = Editors.getActiveTextEditor();
+      final var matches = searchReplaceEngine.matches.get().size();
+
+      // summary of the matches found in all open editors
+      int openEditorsMatchCount = 0;
+      int openEditorsWithMatches = 0;
+      final var openEditorsToolTip = new StringBuilder();
+      for (final var editorMatches : searchReplaceEngine.openEditorsMatches.get()) {
+         final int count = editorMatches.matches().getTotalCount();
+         if (count > 0) {
+            openEditorsMatchCount += count;
+            openEditorsWithMatches++;
+            openEditorsToolTip.append(editorMatches.editor().getTitle()).append(": ").append(count).append('\n');
+         }
+      }
+      final var openEditorsInfo = openEditorsMatchCount == 0 //
+            ? ""
+            : " (" + NLS.bind(Messages.FindView_MatchesInOpenEditors, openEditorsMatchCount, openEditorsWithMatches) + ")";
+      final var infoToolTip = openEditorsToolTip.isEmpty() ? null : openEditorsToolTip.toString().strip();
+
+      // summary of the matches found in files
+      final var fileMatches = searchReplaceEngine.fileMatches.get();
+      int fileMatchCount = 0;
+      for (final var result : fileMatches) {
+         fileMatchCount += result.matches().getTotalCount();
+      }
+      final var scopeInfo = openEditorsInfo + (fileMatchCount == 0 //
+            ? ""
+            : " (" + NLS.bind(Messages.FindView_MatchesInFiles, String.format("%,d", fileMatchCount), fileMatches.size()) + ")");
+
+      if (editor == null || matches == 0) {
+         // navigation may still cross over to other open editors
+         final boolean isFindEnabled = openEditorsMatchCount > 0;
+
+         // no editor open or no search string typed
+         if (editor == null || Strings.isEmpty(searchReplaceEngine.searchString.get()))
+            return new ControlStates(isFindEnabled, false, false, null, "", infoToolTip);
+
+         return new ControlStates(isFindEnabled, false, true, Constants.IMAGE_STATUS_WARN, //
+            searchReplaceEngine.isRegExTimedOut.get() //
+                  ? NLS.bind(Messages.FindView_RegExTimeout, PluginPreferences.getRegExTimeout())
+                  : Messages.FindView_NoMatchNotFound + scopeInfo, //
+            infoToolTip);
+      }
+
+      final var matchSet = searchReplaceEngine.matches.get();
+      final int selectedMatchIndex = searchReplaceEngine.selectedMatchIndex.get();
+      final String matchInfo;
+      if (!matchSet.isCountComplete()) {
+         matchInfo = NLS.bind(Messages.FindView_MatchesCounting, String.format("%,d", matchSet.getTotalCount()));
+      } else if (matchSet.isTruncated()) {
+         matchInfo = NLS.bind(Messages.FindView_MatchesTruncated, String.format("%,d", matchSet.getTotalCount()), //
+            String.format("%,d", matches));
+      } else if (selectedMatchIndex == SearchReplaceEngine.NOT_FOUND || selectedMatchIndex >= matches) {
+         matchInfo = matches + " matches";
+      } else {
+         matchInfo = NLS.bind(Messages.FindView_MatchNofM, selectedMatchIndex + 1, matches);
+      }
+      return new ControlStates(true, true, false, Constants.IMAGE_STATUS_INFO, matchInfo + scopeInfo, infoToolTip);
+   }
+
    private void onAnyControlFocused(final Event event) {
       if (anyChildHasFocus || !(event.widget instanceof Control))
          return;
@@ -334,10 +501,37 @@ private void onPreferencesChanged(final PropertyChangeEvent ev) {
          case PluginPreferences.PREF_HIGHLIGHT_ALL:
             btnHighlightAll.setSelection(PluginPreferences.isHighlightAll());
             break;
+         case PluginPreferences.PREF_SEARCH_SCOPE:
+            cmbSearchScope.select(PluginPreferences.getSearchScope().ordinal());
+            updateFileResultsVisibility();
+            break;
       }
+      scheduleRefresh();
+   }
+
+   /**
+    * Applies the current results of the {@link SearchReplaceEngine} to the view.
+    */
+   private void refresh() {
+      isRefreshScheduled.set(false);
+      if (isDisposed())
+         return;
+
+      updateFileResults();
       updateControlStates();
    }
 
+   /**
+    * Schedules a {@link #refresh()} unless one is already pending. Results may be published progressively and from several
+    * searches, so instead of updating the controls on each notification, all notifications received until the UI thread
+    * processes its next batch of events result in a single refresh.
+    */
+   private void scheduleRefresh() {
+      if (isRefreshScheduled.compareAndSet(false, true)) {
+         UI.getDisplay().asyncExec(this::refresh);
+      }
+   }
+
    @Override
    public boolean setFocus() {
       searchText.selectAll();
@@ -363,39 +557,86 @@ void updateControlStates() {
       if (isDisposed())
          return;
 
-      final var editor = Editors.getActiveTextEditor();
-      final var matches = searchReplaceEngine.matches.get().size();
+      final var timer = Metrics.start(Phase.UPDATE_VIEW);
+      final var newControlStates = computeControlStates();
+      if (!newControlStates.equals(controlStates)) {
+         controlStates = newControlStates;
 
-      if (editor == null || matches == 0) {
-         btnFindNext.setEnabled(false);
-         btnFindPrev.setEnabled(false);
-         btnReplace.setEnabled(false);
-         btnReplaceAll.setEnabled(false);
-
-         if (editor == null || Strings.isEmpty(searchReplaceEngine.searchString.get())) {
-            // no editor open or no search string typed
-            searchText.setBackground(searchText_defaultBG);
-            searchText.setForeground(searchText_defaultFG);
+         btnFindNext.setEnabled(newControlStates.isFindEnabled());
+         btnFindPrev.setEnabled(newControlStates.isFindEnabled());
+         btnReplace.setEnabled(newControlStates.isReplaceEnabled());
+         btnReplaceAll.setEnabled(newControlStates.isReplaceEnabled());
+
+         searchText.setBackground(newControlStates.isNoResults() ? searchText_noResultsBG : searchText_defaultBG);
+         searchText.setForeground(newControlStates.isNoResults() ? searchText_noResultsFG : searchText_defaultFG);
+
+         lblInfoMessage.setToolTipText(newControlStates.infoToolTip());
+         final var infoImage = newControlStates.infoImage();
+         if (infoImage == null) {
             lblInfoMessage.setVisible(false);
          } else {
-            searchText.setBackground(searchText_noResultsBG);
-            searchText.setForeground(searchText_noResultsFG);
-            lblInfoMessage.setImage(Plugin.get().getSharedImage(Constants.IMAGE_STATUS_WARN));
-            lblInfoMessage.setText(Messages.FindView_NoMatchNotFound);
+            lblInfoMessage.setImage(Plugin.get().getSharedImage(infoImage));
+            lblInfoMessage.setText(newControlStates.infoText());
             lblInfoMessage.setVisible(true);
          }
-      } else {
-         btnFindNext.setEnabled(true);
-         btnFindPrev.setEnabled(true);
-         btnReplace.setEnabled(true);
-         btnReplaceAll.setEnabled(true);
+      }
+      timer.stop(0, searchReplaceEngine.matches.get().size());
+   }
 
-         searchText.setBackground(searchText_defaultBG);
-         searchText.setForeground(searchText_defaultFG);
+   private void updateFileResults() {
+      final var fileMatches = searchReplaceEngine.fileMatches.get();
+      if (fileMatches == shownFileMatches)
+         return;
+      shownFileMatches = fileMatches;
+      fileResultsTable.clearAll();
+      fileResultsTable.setItemCount(fileMatches.size());
+   }
+
+   /**
+    * Shows the file results table only if a file scope is selected.
+    */
+   private void updateFileResultsVisibility() {
+      final boolean isFileScope = PluginPreferences.getSearchScope().isFileScope();
+      if (fileResultsTable.getVisible() == isFileScope)
+         return;
+      fileResultsTable.setVisible(isFileScope);
+      ((GridData) fileResultsTable.getLayoutData()).exclude = !isFileScope;
+      layout(true);
+   }
 
-         lblInfoMessage.setImage(Plugin.get().getSharedImage(Constants.IMAGE_STATUS_INFO));
-         lblInfoMessage.setText(matches + " matches");
-         lblInfoMessage.setVisible(true);
+   /**
+    * Highlights the pinned history entries in the active editor. Regular expression entries are not highlighted as the
+    * pinned terms are matched together in a single pass, which is only possible for plain search strings.
+    */
+   private void updatePinnedTerms() {
+      final var terms = new ArrayList<AhoCorasickMatcher.Term>();
+      for (final var he : history.pinnedEntries.get()) {
+         if (!he.matchRegEx && !he.find.isEmpty()) {
+            terms.add(new AhoCorasickMatcher.Term(he.find, he.matchCase, he.matchWholeWord));
+         }
       }
+      searchReplaceEngine.setPinnedTerms(terms);
+   }
+
+   /**
+    * Pre-compiles the search patterns of pinned and recent history entries in the background, so that loading a history entry
+    * does not wait for the pattern compilation.
+    */
+   private void warmUpMatcherCache() {
+      final var entries = history.getEntries();
+      if (entries.isEmpty())
+         return;
+
+      final var matcherEngine = PluginPreferences.getMatcherEngine();
+      final var job = Job.create("Pre-compiling search patterns", monitor -> {
+         for (final var he : entries.subList(0, Math.min(entries.size(), MatcherCache.CAPACITY))) {
+            if (monitor.isCanceled())
+               return;
+            MatcherCache.warmUp(new SearchOptions(he.find, he.matchCase, he.matchWholeWord, he.matchRegEx, matcherEngine));
+         }
+      });
+      job.setSystem(true);
+      job.setPriority(Job.DECORATE);
+      job.schedule();
    }
 }